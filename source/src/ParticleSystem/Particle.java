@@ -1,71 +1,107 @@
 package ParticleSystem;
 
-import java.util.function.Consumer;
-
 import processing.core.PImage;
 import processing.core.PVector;
-import sidescroller.SideScroller;
 
 /**
  * Particle
  * <p>
- * Can change any public variable on runtime.
+ * View of one particle stored in {@link Particles}. Particle data lives in
+ * primitive arrays; a view is bound to a slot, handed to event
+ * listeners and then written back. Can change any public variable while bound.
+ * <p>
+ * Views are reused: do not keep a reference to a particle (or its vectors)
+ * after the event it was passed to.
  *
  * @author petturtle
  */
 public class Particle {
 
-	private SideScroller applet;
-	
+	public static final float DEFAULT_SIZE = 40; //TODO: create better way to control
+
+	private final Particles particles;
+	private int index;
+
 	public PImage image;
 	public PVector position;
 	public PVector velocity;
 	public PVector acceleration;
-	
-	public float size = 40; //TODO: create better way to control
+
+	public float size;
 	public float maxLifespan; // lifespan of particle when it was spawned
 	public float lifespan;
 	public int frameCount;
-	
-	public Particle (SideScroller applet, PImage image) {
-		this.applet = applet;
-		this.image = image;
-		frameCount = 0;
-	}
-	
-	public void spawn(Consumer<Particle> consumer, float lifespan) {
-		consumer.accept(this);
-		setLifespan(lifespan);
+
+	// Owned vectors, listeners may replace the public ones
+	private final PVector ownPosition = new PVector();
+	private final PVector ownVelocity = new PVector();
+	private final PVector ownAcceleration = new PVector();
+
+	Particle(Particles particles) {
+		this.particles = particles;
 	}
-	
+
 	public boolean isDead() {
-		if (lifespan <= 0.0)
-			return true;
-		else
-			return false;
-	}
-	
-	public void run() {
-		if (!isDead()) {
-			update();
-			draw();
-		}
+		return lifespan <= 0;
 	}
-	
-	private void update() {
-		velocity.add(acceleration);
-		position.add(velocity);
-		lifespan -= 1.0;
-		frameCount++;
+
+	/**
+	 * @return slot of the particle in {@link Particles}.
+	 */
+	public int getIndex() {
+		return index;
 	}
-	
-	private void draw() {
-		applet.image(image, position.x, position.y, size, size);
+
+	/**
+	 * Loads slot i into the view. In analytic mode the particle is evaluated at
+	 * its current age.
+	 */
+	void bind(int i) {
+		Particles p = particles;
+		index = i;
+		image = p.images.get(p.image[i]);
+		maxLifespan = p.maxLifespan[i];
+		if (p.analytic) {
+			int age = p.tick - p.frameCount[i];
+			position = ownPosition.set(ParticlePreloadSystem.position(p.x[i], p.vx[i], p.ax[i], age),
+					ParticlePreloadSystem.position(p.y[i], p.vy[i], p.ay[i], age));
+			velocity = ownVelocity.set(ParticlePreloadSystem.velocity(p.vx[i], p.ax[i], age),
+					ParticlePreloadSystem.velocity(p.vy[i], p.ay[i], age));
+			acceleration = ownAcceleration.set(p.ax[i], p.ay[i]);
+			size = DEFAULT_SIZE;
+			lifespan = maxLifespan - age;
+			frameCount = age;
+			return;
+		}
+		position = ownPosition.set(p.x[i], p.y[i]);
+		velocity = ownVelocity.set(p.vx[i], p.vy[i]);
+		acceleration = ownAcceleration.set(p.ax[i], p.ay[i]);
+		size = p.size[i];
+		lifespan = p.lifespan[i];
+		frameCount = p.frameCount[i];
 	}
-	
-	private void setLifespan(float lifespan)
-	{
-		maxLifespan = lifespan;
-		this.lifespan = lifespan;
+
+	/**
+	 * Writes the view back to its slot. In analytic mode only spawn parameters
+	 * are kept, so the view must be at age 0.
+	 */
+	void store() {
+		Particles p = particles;
+		int i = index;
+		p.image[i] = p.getImageId(image);
+		p.x[i] = position.x;
+		p.y[i] = position.y;
+		p.vx[i] = velocity.x;
+		p.vy[i] = velocity.y;
+		p.ax[i] = acceleration.x;
+		p.ay[i] = acceleration.y;
+		p.maxLifespan[i] = maxLifespan;
+		if (p.analytic) {
+			p.frameCount[i] = p.tick - frameCount;
+			return;
+		}
+		p.size[i] = size;
+		p.lifespan[i] = lifespan;
+		p.frameCount[i] = frameCount;
 	}
 }
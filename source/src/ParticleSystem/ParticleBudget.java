@@ -0,0 +1,123 @@
+package ParticleSystem;
+
+import processing.core.PVector;
+import sidescroller.SideScroller;
+
+/**
+ * Particle Budget
+ * <p>
+ * Global limit on live particles, shared by every {@link ParticleSystem}
+ * (including child systems). Systems ask for spawn allowance each tick:
+ * <ul>
+ * <li>spawns are scaled down with the emitter's distance from the camera
+ * view;</li>
+ * <li>systems whose bounds are outside the view spawn nothing and are not
+ * drawn (existing particles still age out);</li>
+ * <li>no spawns are granted once the total reaches {@link #maxParticles}.</li>
+ * </ul>
+ * Accounting is per frame (live counts reported during the previous frame), so
+ * systems that are dropped without being cleared never leak budget.
+ */
+public final class ParticleBudget {
+
+	/**
+	 * Cap on live particles across all systems. Must stay well above
+	 * {@link Particles#PARALLEL_THRESHOLD}, or no single system can grow large
+	 * enough to integrate in parallel.
+	 */
+	public static int maxParticles = 100000;
+
+	/**
+	 * Lowest spawn scale for distant (but visible) emitters.
+	 */
+	public static float minDetail = 0.25f;
+
+	private static int frame = -1;
+	private static int lastFrameLive; // live particles reported during the previous frame
+	private static int frameLive;
+	private static int frameSpawned;
+
+	// World-space view, refreshed once per frame
+	private static float viewMinX, viewMinY, viewMaxX, viewMaxY;
+	private static float viewX, viewY, viewRadius;
+
+	private ParticleBudget() {
+	}
+
+	/**
+	 * Starts a new accounting frame if the frame has changed. Called by every
+	 * system at the start of its run.
+	 */
+	static void begin(SideScroller applet) {
+		if (applet.frameCount == frame) {
+			return;
+		}
+		frame = applet.frameCount;
+		lastFrameLive = frameLive;
+		frameLive = 0;
+		frameSpawned = 0;
+
+		if (applet.camera == null) {
+			viewMinX = viewMinY = Float.NEGATIVE_INFINITY;
+			viewMaxX = viewMaxY = Float.POSITIVE_INFINITY;
+			viewRadius = Float.POSITIVE_INFINITY;
+			return;
+		}
+		PVector a = applet.camera.getDispToCoord(new PVector(0, 0));
+		PVector b = applet.camera.getDispToCoord(new PVector(applet.width, applet.height));
+		PVector c = applet.camera.getDispToCoord(new PVector(applet.width, 0));
+		PVector d = applet.camera.getDispToCoord(new PVector(0, applet.height));
+		viewMinX = Math.min(Math.min(a.x, b.x), Math.min(c.x, d.x)); // camera may be rotated
+		viewMinY = Math.min(Math.min(a.y, b.y), Math.min(c.y, d.y));
+		viewMaxX = Math.max(Math.max(a.x, b.x), Math.max(c.x, d.x));
+		viewMaxY = Math.max(Math.max(a.y, b.y), Math.max(c.y, d.y));
+		viewX = (viewMinX + viewMaxX) / 2;
+		viewY = (viewMinY + viewMaxY) / 2;
+		viewRadius = Math.max(viewMaxX - viewMinX, viewMaxY - viewMinY) / 2;
+	}
+
+	/**
+	 * Reports a system's live particles after its run.
+	 */
+	static void report(int live) {
+		frameLive += live;
+	}
+
+	/**
+	 * @return true if a circle of the given radius around (x, y) overlaps the
+	 *         camera view.
+	 */
+	public static boolean isVisible(float x, float y, float radius) {
+		return x + radius >= viewMinX && x - radius <= viewMaxX && y + radius >= viewMinY && y - radius <= viewMaxY;
+	}
+
+	/**
+	 * @return spawn scale for an emitter at (x, y): 1 within the view, falling off
+	 *         with distance beyond it down to {@link #minDetail}.
+	 */
+	public static float getDetail(float x, float y) {
+		float distance = (float) Math.hypot(x - viewX, y - viewY);
+		if (distance <= viewRadius) {
+			return 1;
+		}
+		return Math.max(minDetail, viewRadius / distance);
+	}
+
+	/**
+	 * Grants spawns, at most what is left of the budget this frame.
+	 *
+	 * @return number of particles the system may spawn.
+	 */
+	static int request(int amount) {
+		int granted = Math.max(0, Math.min(amount, maxParticles - lastFrameLive - frameSpawned));
+		frameSpawned += granted;
+		return granted;
+	}
+
+	/**
+	 * @return live particles counted last frame.
+	 */
+	public static int getLiveParticles() {
+		return lastFrameLive;
+	}
+}
@@ -0,0 +1,213 @@
+package ParticleSystem;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import ParticleSystem.emissions.*;
+import ParticleSystem.events.*;
+import processing.core.PApplet;
+import processing.core.PVector;
+import processing.data.JSONArray;
+import processing.data.JSONObject;
+import sidescroller.SideScroller;
+import sidescroller.Tileset;
+
+/**
+ * Particle Effects
+ * <p>
+ * Loads particle effect definitions from <code>particleEffects.json</code> and
+ * compiles each into a template {@link ParticleSystem} once. Effects are then
+ * created by name as copies of their template, so no JSON is read or parsed at
+ * spawn time.
+ * <p>
+ * The definitions file is checked for changes (at most once a second) by
+ * {@link #update()}, called from the game loop, and recompiled if it was
+ * edited; effects already running are unaffected. A file that fails to compile leaves the previous
+ * templates in place.
+ *
+ * <pre>
+ * { "effects": [ {
+ *     "name": "SPARKS", "image": "MagicIdle1",
+ *     "spawnRate": 10, "spawnAmount": 4, "lifespan": 1,
+ *     "emission": { "type": "AREA", "velocity": 2, "acceleration": 0, "spread": 8 },
+ *     "listeners": [ { "type": "SIZE", "start": 30, "end": 0 } ]
+ * } ] }
+ * </pre>
+ *
+ * Optional: <code>radius</code>, <code>analytic</code>, <code>collision</code>
+ * (NONE, KILL, BOUNCE, STICK) and <code>restitution</code>.
+ * <p>
+ * Emission types: AREA, ARCH, DIRECTIONAL, RECT, ROTATION. Listener types:
+ * VELOCITY, ACCELERATION, SIZE, ANIMATION, NO_LOOP, CHILD (references another
+ * effect by name).
+ */
+public final class ParticleEffects {
+
+	private static final String DATAPATH = "Assets/particleEffects.json";
+	private static final int RELOAD_INTERVAL = 1000; // ms
+
+	private static SideScroller applet;
+	private static HashMap<String, ParticleSystem> templates = new HashMap<String, ParticleSystem>();
+	private static long lastModified;
+	private static int lastCheck;
+
+	private ParticleEffects() {
+	}
+
+	public static void load(SideScroller app) {
+		applet = app;
+		reload();
+	}
+
+	/**
+	 * Recompiles the effects if the definitions file changed. Call once a frame.
+	 */
+	public static void update() {
+		if (applet.millis() - lastCheck < RELOAD_INTERVAL) {
+			return;
+		}
+		lastCheck = applet.millis();
+		if (getFile().lastModified() != lastModified) {
+			reload();
+		}
+	}
+
+	/**
+	 * Creates a new instance of an effect.
+	 *
+	 * @param name     effect name
+	 * @param position emission position, set to an active entity's PVector for the
+	 *                 effect to follow it
+	 * @return the new particle system, or null if there is no such effect
+	 */
+	public static ParticleSystem create(String name, PVector position) {
+		ParticleSystem template = templates.get(name);
+		if (template == null) {
+			PApplet.println("<ParticleEffects> Error, no effect named ( " + name + " ) >");
+			return null;
+		}
+		ParticleSystem effect = template.copy();
+		effect.emission.setPosition(position);
+		return effect;
+	}
+
+	public static boolean hasEffect(String name) {
+		return templates.containsKey(name);
+	}
+
+	private static void reload() {
+		File file = getFile();
+		lastModified = file.lastModified();
+		if (!file.exists()) {
+			return;
+		}
+
+		try {
+			JSONArray effects = applet.loadJSONObject(DATAPATH).getJSONArray("effects");
+			HashMap<String, JSONObject> definitions = new HashMap<String, JSONObject>();
+			for (int i = 0; i < effects.size(); i++) {
+				JSONObject definition = effects.getJSONObject(i);
+				definitions.put(definition.getString("name"), definition);
+			}
+
+			HashMap<String, ParticleSystem> compiled = new HashMap<String, ParticleSystem>();
+			for (String name : definitions.keySet()) {
+				compile(name, definitions, compiled, new HashSet<String>());
+			}
+			templates = compiled;
+		} catch (RuntimeException e) {
+			PApplet.println("<ParticleEffects> Error while loading ( " + DATAPATH + " ): " + e.getMessage() + " >");
+		}
+	}
+
+	private static ParticleSystem compile(String name, HashMap<String, JSONObject> definitions,
+			HashMap<String, ParticleSystem> compiled, HashSet<String> visiting) {
+		if (compiled.containsKey(name)) {
+			return compiled.get(name);
+		}
+		JSONObject definition = definitions.get(name);
+		if (definition == null) {
+			throw new IllegalArgumentException("unknown effect " + name);
+		}
+		if (!visiting.add(name)) {
+			throw new IllegalArgumentException("effect " + name + " contains itself");
+		}
+
+		ParticleSystem system = new ParticleSystem(applet, Tileset.getTile(definition.getString("image")),
+				definition.getInt("spawnRate"), definition.getInt("spawnAmount"), definition.getFloat("lifespan"),
+				definition.getBoolean("analytic", false));
+		system.setEmission(parseEmission(definition.getJSONObject("emission")));
+		system.radius = definition.getFloat("radius", system.radius);
+		system.collision = ParticleSystem.Collision.valueOf(definition.getString("collision", "NONE"));
+		system.restitution = definition.getFloat("restitution", system.restitution);
+
+		JSONArray listeners = definition.getJSONArray("listeners");
+		for (int i = 0; listeners != null && i < listeners.size(); i++) {
+			JSONObject listener = listeners.getJSONObject(i);
+			String type = listener.getString("type");
+			switch (type) {
+				case "VELOCITY" :
+					system.addEventListener(new ParticalVelocityController(
+							new PVector(listener.getFloat("x", 0), listener.getFloat("y", 0))));
+					break;
+				case "ACCELERATION" :
+					system.addEventListener(new ParticleAccelerationController(
+							new PVector(listener.getFloat("x", 0), listener.getFloat("y", 0))));
+					break;
+				case "SIZE" :
+					system.addEventListener(
+							new ParticleSizeController(listener.getFloat("start"), listener.getFloat("end")));
+					break;
+				case "ANIMATION" :
+					system.addEventListener(
+							new ParticleAnimationController(listener.getString("name"), listener.getInt("rate", 1)));
+					break;
+				case "NO_LOOP" :
+					system.addEventListener(new ParticleNoLoopController(listener.getInt("amount")));
+					break;
+				case "CHILD" :
+					ParticleSystem child = compile(listener.getString("effect"), definitions, compiled, visiting);
+					boolean onDeath = listener.getBoolean("onDeath", false);
+					system.addEventListener(listener.hasKey("delay")
+							? new ParticleChildController(child, listener.getInt("delay"), onDeath)
+							: new ParticleChildController(child, onDeath));
+					break;
+				default :
+					throw new IllegalArgumentException("effect " + name + ": unknown listener " + type);
+			}
+		}
+
+		visiting.remove(name);
+		compiled.put(name, system);
+		return system;
+	}
+
+	private static ParticleEmission parseEmission(JSONObject emission) {
+		PVector origin = new PVector(0, 0);
+		float velocity = emission.getFloat("velocity", 0);
+		float acceleration = emission.getFloat("acceleration", 0);
+		float spread = emission.getFloat("spread", 0);
+		String type = emission.getString("type", "AREA");
+		switch (type) {
+			case "AREA" :
+				return new AreaEmission(origin, velocity, acceleration, spread);
+			case "ARCH" :
+				return new ArchEmission(origin, velocity, acceleration, spread, emission.getFloat("minAngle"),
+						emission.getFloat("maxAngle"));
+			case "DIRECTIONAL" :
+				return new DirectionalEmission(origin, velocity, acceleration, spread, emission.getFloat("angle"));
+			case "RECT" :
+				return new RectEmission(origin, velocity, acceleration, emission.getInt("width"),
+						emission.getInt("height"));
+			case "ROTATION" :
+				return new RotationEmission(origin, velocity, acceleration, spread, emission.getFloat("div"));
+			default :
+				throw new IllegalArgumentException("unknown emission " + type);
+		}
+	}
+
+	private static File getFile() {
+		return applet.sketchFile(DATAPATH);
+	}
+}
@@ -2,14 +2,16 @@ package ParticleSystem;
 
 import java.util.function.Consumer;
 
-import processing.core.PVector;
-
 /**
  * Particle Preload System
  * <p>
  * Preloads the particles position, velocity, lifespan and frameCount.
  * It only takes into account the particles spawn position, velocity and acceleration.
  * Runtime changes like collision and outside forces will not be taken into affect.
+ * <p>
+ * Uses the closed form of the per-frame integration in {@link Particles}
+ * (velocity += acceleration, then position += velocity), so a preloaded
+ * particle is exactly where a simulated one would be.
  *
  * @author petturtle
  */
@@ -20,15 +22,26 @@ public class ParticlePreloadSystem {
 			p.lifespan -= frames;
 			p.frameCount = frames;
 			if (!p.isDead()) {
-				p.position.add(positionDeltaIntegral(p, frames));
-				p.velocity.add(p.acceleration.copy().mult(frames));
+				p.position.x = position(p.position.x, p.velocity.x, p.acceleration.x, frames);
+				p.position.y = position(p.position.y, p.velocity.y, p.acceleration.y, frames);
+				p.velocity.x = velocity(p.velocity.x, p.acceleration.x, frames);
+				p.velocity.y = velocity(p.velocity.y, p.acceleration.y, frames);
 			}
 		};
 	}
-	
-	private static PVector positionDeltaIntegral(Particle p, int frames) {
-		float deltaX = (float) (p.position.x + p.velocity.x*frames + 0.5*p.acceleration.x*frames*frames);
-		float deltaY = (float) (p.position.y + p.velocity.y*frames + 0.5*p.acceleration.y*frames*frames);
-		return new PVector(deltaX, deltaY);
+
+	/**
+	 * @return position after n frames, given the spawn position, velocity and
+	 *         acceleration.
+	 */
+	public static float position(float p0, float v0, float a, int n) {
+		return p0 + n*v0 + a*n*(n+1f)/2f;
+	}
+
+	/**
+	 * @return velocity after n frames.
+	 */
+	public static float velocity(float v0, float a, int n) {
+		return v0 + n*a;
 	}
 }
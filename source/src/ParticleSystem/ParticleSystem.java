@@ -1,7 +1,7 @@
 package ParticleSystem;
 
 import java.util.ArrayList;
-import java.util.function.Consumer;
+import java.util.SplittableRandom;
 
 import ParticleSystem.emissions.*;
 import ParticleSystem.events.*;
@@ -21,6 +21,13 @@ import sidescroller.Tileset;
 public class ParticleSystem {
 
 	public static final int FRAMERATE = 60;
+
+	/**
+	 * What particles do when they enter a collision tile.
+	 */
+	public enum Collision {
+		NONE, KILL, BOUNCE, STICK;
+	}
 	
 	private SideScroller applet;
 	public PImage image;
@@ -28,11 +35,38 @@ public class ParticleSystem {
 	public Particles particles;
 	
 	private ArrayList<ParticleEventListener> listeners = new ArrayList<ParticleEventListener>();
+	// Listeners that handle per-particle spawn/run/death events (others are skipped)
+	private ArrayList<ParticleEventListener> spawnListeners = new ArrayList<ParticleEventListener>();
+	private ArrayList<ParticleEventListener> runListeners = new ArrayList<ParticleEventListener>();
+	private ArrayList<ParticleEventListener> deathListeners = new ArrayList<ParticleEventListener>();
 	
 	public int spawnRate;
 	public int spawnAmount;
 	public float lifespan;
 	public boolean spawn = true;
+	boolean analytic;
+	/**
+	 * How far particles travel from the emission position; the system is culled
+	 * when this circle is off-screen.
+	 */
+	public float radius = 256;
+	/**
+	 * Particle collision with the level's collision tiles (see
+	 * {@link sidescroller.SideScroller#collisionLayer}). Not applied to analytic
+	 * systems.
+	 */
+	public Collision collision = Collision.NONE;
+	/**
+	 * Fraction of speed kept on a bounce.
+	 */
+	public float restitution = 0.5f;
+
+	/**
+	 * Generator for emissions, seed with {@link #setSeed(long)} for reproducible
+	 * output. Copies get a fresh generator, so copying a template leaves it as it
+	 * was.
+	 */
+	SplittableRandom random = new SplittableRandom();
 
 	/**
      * Create a new particle system.
@@ -59,11 +93,22 @@ public class ParticleSystem {
      * @param lifespan     How long will the particle be displayed (seconds)
      */
 	public ParticleSystem(SideScroller applet, PImage image, int spawnRate, int spawnAmount, float lifespan) {
+		this(applet, image, spawnRate, spawnAmount, lifespan, false);
+	}
+
+	/**
+	 * Create a new particle system, see {@link #setAnalytic(boolean)}.
+	 * 
+	 * @param analytic     evaluate particles from their age
+	 */
+	public ParticleSystem(SideScroller applet, PImage image, int spawnRate, int spawnAmount, float lifespan,
+			boolean analytic) {
 		this.applet = applet;
 		this.spawnRate = spawnRate;
 		this.spawnAmount = spawnAmount;
 		this.lifespan = lifespan;
 		this.image = image;
+		this.analytic = analytic;
 		
 		emission = new AreaEmission(new PVector(0,0), 1, 1, 0);
 		particles = new Particles(this, applet);
@@ -76,47 +121,112 @@ public class ParticleSystem {
 	public void preLoad() {
 		for(int i = 0; i < lifespan*FRAMERATE; i+=FRAMERATE/spawnRate)
 			for(int k = 0; k < spawnAmount; k++)
-					ParticlePreloadSystem.preload(i).accept(particles.newParticle());
+					particles.newParticle(i);
 	}
 	
 	public ParticleSystem copy() {
-		ParticleSystem copy = new ParticleSystem(applet, image, spawnRate, spawnAmount, lifespan);
+		ParticleSystem copy = new ParticleSystem(applet, image, spawnRate, spawnAmount, lifespan, analytic);
 		copy.setEmission(emission.copy());
+		copy.radius = radius;
+		copy.collision = collision;
+		copy.restitution = restitution;
 		for(ParticleEventListener mod : listeners)
 			copy.addEventListener(mod.copy());
 		return copy;
 	}
 	
+	/**
+	 * Clears all particles and resets listeners so the system can be reused as
+	 * if newly copied.
+	 */
+	public void reset() {
+		particles.clear();
+		spawn = true;
+		for (int i = 0; i < listeners.size(); i++)
+			listeners.get(i).reset();
+	}
+
 	public void setEmission(ParticleEmission emission) {
 		this.emission = emission;
 	}
 	
-	public Consumer<Particle> getEmissionConsumer() {
-		return emission.getConsumer();
+	/**
+	 * Analytic particles are evaluated from their age instead of being stepped
+	 * each frame, so preloading and idle systems cost nothing. Only for systems
+	 * whose particles follow their spawn motion: changes made by run events do not
+	 * persist. Clears existing particles.
+	 */
+	public void setAnalytic(boolean analytic) {
+		this.analytic = analytic;
+		particles = new Particles(this, applet);
+	}
+
+	public boolean isAnalytic() {
+		return analytic;
+	}
+
+	public void setSeed(long seed) {
+		random = new SplittableRandom(seed);
 	}
 	
 	public void addEventListener(ParticleEventListener modifier) {
 		modifier.onCreateEvent(this);
 		listeners.add(modifier);
+		if (handles(modifier, "onParticleSpawnEvent"))
+			spawnListeners.add(modifier);
+		if (handles(modifier, "onParticleRunEvent"))
+			runListeners.add(modifier);
+		if (handles(modifier, "onParticleDeathEvent"))
+			deathListeners.add(modifier);
 	}
 
 	public boolean removeEventListener(ParticleEventListener modifier) {
+		spawnListeners.remove(modifier);
+		runListeners.remove(modifier);
+		deathListeners.remove(modifier);
 		return listeners.remove(modifier);
 	}
+
+	public boolean hasSpawnListeners() {
+		return !spawnListeners.isEmpty();
+	}
+
+	public boolean hasRunListeners() {
+		return !runListeners.isEmpty();
+	}
+
+	public boolean hasDeathListeners() {
+		return !deathListeners.isEmpty();
+	}
 	
 	public void onUpdateEvent() {
-		listeners.forEach(l -> l.onUpdateEvent());
+		for (int i = 0; i < listeners.size(); i++)
+			listeners.get(i).onUpdateEvent();
 	}
 	
 	public void onParticleRunEvent(Particle particle) {
-		listeners.forEach(l -> l.onParticleRunEvent(particle));
+		for (int i = 0; i < runListeners.size(); i++)
+			runListeners.get(i).onParticleRunEvent(particle);
 	}
 	
 	public void onParticleSpawnEvent(Particle particle) {
-		listeners.forEach(l -> l.onParticleSpawnEvent(particle));
+		for (int i = 0; i < spawnListeners.size(); i++)
+			spawnListeners.get(i).onParticleSpawnEvent(particle);
 	}
 	
 	public void onParticleDeathEvent(Particle particle) {
-		listeners.forEach(l -> l.onParticleDeathEvent(particle));
+		for (int i = 0; i < deathListeners.size(); i++)
+			deathListeners.get(i).onParticleDeathEvent(particle);
+	}
+
+	/**
+	 * @return true if the listener overrides the given per-particle event.
+	 */
+	private static boolean handles(ParticleEventListener listener, String event) {
+		try {
+			return listener.getClass().getMethod(event, Particle.class).getDeclaringClass() != ParticleEventListener.class;
+		} catch (NoSuchMethodException e) {
+			return true;
+		}
 	}
 }
@@ -1,94 +1,444 @@
 package ParticleSystem;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+import processing.core.PImage;
+import processing.core.PVector;
+import objects.TileLayer;
 import sidescroller.SideScroller;
 
 /**
  * Particles
  * <p>
- * Keeps take of and runs all active and dead particles.
- * Instead of create new particles first checks if it can bring back dead particles;
+ * Keeps track of and runs all active particles. Particle state is kept as a
+ * structure of arrays: live particles occupy slots <code>0..size()-1</code>, so
+ * the update loop is a tight pass over primitive arrays. A dying particle is
+ * replaced by the last live one (swap-remove), so slots past the live count
+ * form the free list and spawn, death and respawn are O(1).
+ * <p>
+ * Arrays are sized up front for the system's steady state, so a running
+ * emitter allocates nothing per frame.
+ * <p>
+ * Emissions and event listeners still see a {@link Particle}, a view bound to
+ * one slot at a time.
+ * <p>
+ * Systems with at least {@link #PARALLEL_THRESHOLD} particles integrate on the
+ * common fork-join pool; listener events, drawing and removal always run on the
+ * calling (animation) thread, in order.
+ * <p>
+ * In analytic mode ({@link ParticleSystem#setAnalytic(boolean)}) particles are
+ * not stepped at all: the motion arrays hold spawn parameters,
+ * <code>frameCount</code> holds the spawn tick, and position is evaluated from
+ * age in closed form when drawn. There are no per-particle lifespan or size
+ * arrays; run events see an evaluated particle and changes they make are used
+ * for that frame's draw only.
+ * <p>
+ * Spawning is subject to the global {@link ParticleBudget}; systems outside the
+ * camera view are neither drawn nor spawn.
+ * <p>
+ * Particles store an index into a small per-system image table rather than a
+ * PImage, and are drawn grouped by image (a counting sort per frame), so the
+ * renderer sees runs of the same texture instead of switching per particle.
  *
  * @author petturtle
  */
 public class Particles {
 
+	/**
+	 * Particle count (per system) from which integration is split across cores.
+	 * Below it the fork/join overhead outweighs the gain. Must stay below
+	 * {@link ParticleBudget#maxParticles}, the cap across all systems.
+	 */
+	public static final int PARALLEL_THRESHOLD = 20000;
+	private static final int PARALLEL_BATCH = 8192; // particles per task
+
 	private SideScroller applet;
 	private ParticleSystem particleSystem;
-	
-	public ArrayList<Particle> activeParticles;
-	public ArrayList<Particle> inactiveParticles;
-	
+	private final Particle cursor;
+
+	private int count;
+
+	final boolean analytic;
+	int tick; // runs so far, the clock for analytic particles
+
+	float[] x, y;
+	float[] vx, vy;
+	float[] ax, ay;
+	float[] size;
+	float[] lifespan;
+	float[] maxLifespan;
+	int[] frameCount;
+	short[] image; // index into images
+
+	/**
+	 * Distinct images used by this system's particles (a handful, e.g. animation
+	 * frames).
+	 */
+	final ArrayList<PImage> images = new ArrayList<PImage>();
+	private int[] order; // particle indices grouped by image, for drawing
+	private int[] groupEnd = new int[0];
+
 	public Particles(ParticleSystem particleSystem, SideScroller applet) {
 		this.applet = applet;
 		this.particleSystem = particleSystem;
-		
-		activeParticles = new ArrayList<Particle>();
-		inactiveParticles = new ArrayList<Particle>();
+		analytic = particleSystem.analytic;
+		cursor = new Particle(this);
+		allocate(getSteadyStateCapacity());
 	}
-	
+
+	/**
+	 * @return most particles the system can have alive at once, if it spawns
+	 *         every tick.
+	 */
+	private int getSteadyStateCapacity() {
+		int interval = Math.max(1, ParticleSystem.FRAMERATE/Math.max(1, particleSystem.spawnRate));
+		int spawns = (int) Math.ceil(particleSystem.lifespan*ParticleSystem.FRAMERATE/interval) + 1;
+		return Math.max(16, spawns*particleSystem.spawnAmount);
+	}
+
 	public void run() {
-		runParticles();
-		
-		if (nextTick())
-			spawnParticles(particleSystem.spawnAmount);
-		
+		ParticleBudget.begin(applet);
+		PVector origin = particleSystem.emission.getPosition();
+		boolean visible = ParticleBudget.isVisible(origin.x, origin.y, particleSystem.radius);
+
+		tick++;
+		if (analytic)
+			runAnalytic(visible);
+		else
+			runParticles(visible);
+
+		if (visible && nextTick())
+			spawnParticles(getSpawnAmount(origin));
+
 		particleSystem.onUpdateEvent();
+		ParticleBudget.report(count);
 	}
-	
+
+	/**
+	 * @return spawn amount scaled by distance from the view (fractions are
+	 *         spawned with matching probability) and limited by the budget.
+	 */
+	private int getSpawnAmount(PVector origin) {
+		float amount = particleSystem.spawnAmount*ParticleBudget.getDetail(origin.x, origin.y);
+		int whole = (int) amount;
+		if (particleSystem.random.nextDouble() < amount - whole)
+			whole++;
+		return ParticleBudget.request(whole);
+	}
+
+	/**
+	 * Removes all particles (no death events).
+	 */
+	public void clear() {
+		count = 0;
+		tick = 0;
+	}
+
 	public boolean hasActiveParticles() {
-		return activeParticles.size() >= 1;
-	}
-	
-	public Particle newParticle() {
-		Particle p = new Particle(applet, particleSystem.image);
-		p.spawn(particleSystem.getEmissionConsumer(), particleSystem.lifespan*ParticleSystem.FRAMERATE);
-		particleSystem.onParticleSpawnEvent(p);
-		activeParticles.add(p);
-		return p;
-	}
-	
-	private void runParticles() {
-		ArrayList<Particle> deadParticles = new ArrayList<Particle>();
-		for(Particle p : activeParticles) {
-			p.run();
-			particleSystem.onParticleRunEvent(p);
-			if (p.isDead()) {
-				deadParticles.add(p);
-				particleSystem.onParticleDeathEvent(p);
+		return count >= 1;
+	}
+
+	/**
+	 * @return number of live particles.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Spawns a particle from the system's emission.
+	 *
+	 * @param age frames the particle has already lived (for preloading).
+	 */
+	public void newParticle(int age) {
+		if (count == x.length)
+			allocate(count * 2);
+		int i = count++;
+		particleSystem.emission.emit(this, i, particleSystem.random);
+		image[i] = getImageId(particleSystem.image);
+		maxLifespan[i] = particleSystem.lifespan*ParticleSystem.FRAMERATE;
+		if (analytic) {
+			frameCount[i] = tick;
+		} else {
+			size[i] = Particle.DEFAULT_SIZE;
+			lifespan[i] = maxLifespan[i];
+			frameCount[i] = 0;
+		}
+
+		if (particleSystem.hasSpawnListeners() || (age > 0 && !analytic)) {
+			cursor.bind(i);
+			particleSystem.onParticleSpawnEvent(cursor);
+			if (age > 0 && !analytic)
+				ParticlePreloadSystem.preload(age).accept(cursor);
+			cursor.store();
+		}
+		if (analytic)
+			frameCount[i] -= age; // spawned in the past
+	}
+
+	/**
+	 * Sets the motion of particle i. Used by emissions.
+	 */
+	public void set(int i, float x, float y, float vx, float vy, float ax, float ay) {
+		this.x[i] = x;
+		this.y[i] = y;
+		this.vx[i] = vx;
+		this.vy[i] = vy;
+		this.ax[i] = ax;
+		this.ay[i] = ay;
+	}
+
+	private void runParticles(boolean visible) {
+		final int n = count;
+
+		if (n >= PARALLEL_THRESHOLD)
+			ForkJoinPool.commonPool().invoke(new Integrate(this, 0, n));
+		else
+			integrate(0, n);
+
+		if (particleSystem.hasRunListeners()) {
+			for (int i = 0; i < n; i++) {
+				cursor.bind(i);
+				particleSystem.onParticleRunEvent(cursor);
+				cursor.store();
 			}
 		}
-		activeParticles.removeAll(deadParticles);
-		inactiveParticles.addAll(deadParticles);
+
+		if (visible)
+			draw(n);
+
+		removeDead();
 	}
-	
-	private void spawnParticles(int spawnAmount) {
-		int amount = spawnAmount;
-		amount -= loopParticles(amount);
-		for(int i = 0; i < amount; i++)
-			newParticle();
-	}
-	
-	private int loopParticles(int amount) {
-		ArrayList<Particle> particles = new ArrayList<Particle>();
-		for(Particle particle : inactiveParticles) {
-			if (particle.isDead()) {
-				respawnParticle(particle);
-				particles.add(particle);
+
+	private void runAnalytic(boolean visible) {
+		final int n = count;
+
+		if (particleSystem.hasRunListeners()) {
+			for (int i = 0; i < n; i++) {
+				Particle p = cursor;
+				p.bind(i);
+				particleSystem.onParticleRunEvent(p);
+				if (visible)
+					applet.image(p.image, p.position.x, p.position.y, p.size, p.size);
 			}
-			if (particles.size() >= amount) break;
+		} else if (visible) {
+			draw(n);
 		}
-		inactiveParticles.removeAll(particles);
-		activeParticles.addAll(particles);
-		return particles.size();
+
+		removeDead();
 	}
-	
-	private void respawnParticle(Particle p) {
-		p.spawn(particleSystem.getEmissionConsumer(), particleSystem.lifespan*ParticleSystem.FRAMERATE);
-		particleSystem.onParticleSpawnEvent(p);
+
+	/**
+	 * Draws particles [0, n) one image at a time.
+	 */
+	private void draw(int n) {
+		int groups = images.size();
+		if (groups == 1) {
+			PImage img = images.get(0);
+			for (int i = 0; i < n; i++)
+				drawParticle(img, i);
+			return;
+		}
+
+		// Counting sort by image
+		if (groupEnd.length < groups)
+			groupEnd = new int[groups];
+		Arrays.fill(groupEnd, 0, groups, 0);
+		for (int i = 0; i < n; i++)
+			groupEnd[image[i]]++;
+		for (int g = 1; g < groups; g++)
+			groupEnd[g] += groupEnd[g - 1];
+		for (int i = n - 1; i >= 0; i--)
+			order[--groupEnd[image[i]]] = i; // groupEnd now holds group starts
+
+		for (int g = 0; g < groups; g++) {
+			PImage img = images.get(g);
+			int end = g + 1 < groups ? groupEnd[g + 1] : n;
+			for (int k = groupEnd[g]; k < end; k++)
+				drawParticle(img, order[k]);
+		}
+	}
+
+	private void drawParticle(PImage img, int i) {
+		if (analytic) {
+			int age = tick - frameCount[i];
+			applet.image(img, ParticlePreloadSystem.position(x[i], vx[i], ax[i], age),
+					ParticlePreloadSystem.position(y[i], vy[i], ay[i], age), Particle.DEFAULT_SIZE,
+					Particle.DEFAULT_SIZE);
+		} else {
+			applet.image(img, x[i], y[i], size[i], size[i]);
+		}
+	}
+
+	/**
+	 * @return index of the image in this system's image table, adding it if new.
+	 */
+	short getImageId(PImage img) {
+		for (int i = 0; i < images.size(); i++) {
+			if (images.get(i) == img)
+				return (short) i;
+		}
+		images.add(img);
+		return (short) (images.size() - 1);
+	}
+
+	/**
+	 * Steps particles [from, to) by one frame. Touches only those slots, so ranges
+	 * can be integrated concurrently.
+	 */
+	private void integrate(int from, int to) {
+		final float[] x = this.x, y = this.y, vx = this.vx, vy = this.vy, ax = this.ax, ay = this.ay;
+		final float[] lifespan = this.lifespan;
+		final int[] frameCount = this.frameCount;
+
+		for (int i = from; i < to; i++) {
+			vx[i] += ax[i];
+			vy[i] += ay[i];
+			x[i] += vx[i];
+			y[i] += vy[i];
+			lifespan[i] -= 1;
+			frameCount[i]++;
+		}
+
+		if (particleSystem.collision != ParticleSystem.Collision.NONE && applet.collisionLayer.size() > 0)
+			collide(from, to, applet.collisionLayer);
+	}
+
+	/**
+	 * Resolves particles [from, to) that moved into a collision tile. A tile
+	 * lookup is a few grid cells, independent of level size; the layer is only
+	 * read, so ranges can collide concurrently.
+	 */
+	private void collide(int from, int to, TileLayer<?> layer) {
+		final float[] x = this.x, y = this.y, vx = this.vx, vy = this.vy, ax = this.ax, ay = this.ay;
+		final ParticleSystem.Collision mode = particleSystem.collision;
+		final float restitution = particleSystem.restitution;
+
+		for (int i = from; i < to; i++) {
+			if (!layer.contains(x[i], y[i]))
+				continue;
+			float lastX = x[i] - vx[i];
+			float lastY = y[i] - vy[i];
+			switch (mode) {
+				case KILL :
+					lifespan[i] = 0;
+					break;
+				case STICK :
+					x[i] = lastX;
+					y[i] = lastY;
+					vx[i] = vy[i] = ax[i] = ay[i] = 0;
+					break;
+				case BOUNCE :
+					// Reflect the axis whose step caused the hit (both for corners)
+					boolean hitX = layer.contains(x[i], lastY);
+					boolean hitY = layer.contains(lastX, y[i]);
+					if (hitX || !hitY)
+						vx[i] = -vx[i]*restitution;
+					if (hitY || !hitX)
+						vy[i] = -vy[i]*restitution;
+					x[i] = lastX;
+					y[i] = lastY;
+					break;
+				default :
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Splits integration into batches of {@link #PARALLEL_BATCH}.
+	 */
+	private static class Integrate extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Particles particles;
+		private final int from, to;
+
+		Integrate(Particles particles, int from, int to) {
+			this.particles = particles;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= PARALLEL_BATCH) {
+				particles.integrate(from, to);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Integrate(particles, from, mid), new Integrate(particles, mid, to));
+			}
+		}
+	}
+
+	/**
+	 * Swap-removes dead particles: the last live particle takes the dead one's
+	 * slot, which is then checked again.
+	 */
+	private void removeDead() {
+		boolean deathEvents = particleSystem.hasDeathListeners();
+		int i = 0;
+		while (i < count) {
+			if ((analytic ? maxLifespan[i] - (tick - frameCount[i]) : lifespan[i]) > 0) {
+				i++;
+				continue;
+			}
+			if (deathEvents) {
+				cursor.bind(i);
+				particleSystem.onParticleDeathEvent(cursor);
+			}
+			int last = --count;
+			if (i != last)
+				move(last, i);
+		}
+	}
+
+	private void move(int from, int to) {
+		x[to] = x[from];
+		y[to] = y[from];
+		vx[to] = vx[from];
+		vy[to] = vy[from];
+		ax[to] = ax[from];
+		ay[to] = ay[from];
+		if (!analytic) {
+			size[to] = size[from];
+			lifespan[to] = lifespan[from];
+		}
+		maxLifespan[to] = maxLifespan[from];
+		frameCount[to] = frameCount[from];
+		image[to] = image[from];
+	}
+
+	private void spawnParticles(int spawnAmount) {
+		for(int i = 0; i < spawnAmount; i++)
+			newParticle(0);
 	}
-	
+
+	private void allocate(int capacity) {
+		x = grow(x, capacity);
+		y = grow(y, capacity);
+		vx = grow(vx, capacity);
+		vy = grow(vy, capacity);
+		ax = grow(ax, capacity);
+		ay = grow(ay, capacity);
+		if (!analytic) {
+			size = grow(size, capacity);
+			lifespan = grow(lifespan, capacity);
+		}
+		maxLifespan = grow(maxLifespan, capacity);
+		frameCount = frameCount == null ? new int[capacity] : Arrays.copyOf(frameCount, capacity);
+		image = image == null ? new short[capacity] : Arrays.copyOf(image, capacity);
+		order = new int[capacity];
+	}
+
+	private static float[] grow(float[] array, int capacity) {
+		return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+	}
+
 	private boolean nextTick() {
 		return particleSystem.spawn && applet.frameCount % (ParticleSystem.FRAMERATE/particleSystem.spawnRate) == 0;
 	}
@@ -1,9 +1,8 @@
 package ParticleSystem.emissions;
 
-import java.util.Random;
-import java.util.function.Consumer;
+import java.util.SplittableRandom;
 
-import ParticleSystem.Particle;
+import ParticleSystem.Particles;
 import processing.core.PVector;
 
 /**
@@ -20,10 +19,6 @@ public class AreaEmission implements ParticleEmission {
 	private float acceleration;
 	private float spread;
 	
-	private PVector newPosition;
-	private PVector newVelocity;
-	private PVector newAcceleration;
-	
 	/**
      * Create a new AreaEmission.
 
@@ -39,47 +34,25 @@ public class AreaEmission implements ParticleEmission {
 		this.spread = spread;
 	}
 	
-	public void generateNew() {
-		float phi = (float) (2*Math.PI*Math.random());
-		newPosition();
-		newVelocity(phi);
-		newAcceleration(phi);
-	}
-	
-	private void newPosition() {
-		PVector p = position.copy();
-		Random ran = new Random();
-		p.x += (ran.nextFloat()*spread*2f)-spread;
-		p.y += (ran.nextFloat()*spread*2f)-spread;
-		newPosition = p;
-	}
-
-	private void newVelocity(float phi) {
-		newVelocity = new PVector();
-		newVelocity.x = (float) (velocity*Math.cos(phi));
-		newVelocity.y = (float) (velocity*Math.sin(phi));
-	}
-
-	private void newAcceleration(float phi) {
-		newAcceleration = new PVector();
-		newAcceleration.x = (float) (acceleration*Math.cos(phi));
-		newAcceleration.y = (float) (acceleration*Math.sin(phi));
-	}
-	
 	@Override
-	public Consumer<Particle> getConsumer() {
-		return p -> {
-			generateNew();
-			p.position = newPosition;
-			p.velocity = newVelocity;
-			p.acceleration = newAcceleration;
-		};
+	public void emit(Particles particles, int i, SplittableRandom random) {
+		float phi = (float) (2*Math.PI*random.nextDouble());
+		float cos = (float) Math.cos(phi);
+		float sin = (float) Math.sin(phi);
+		float x = position.x + (float) (random.nextDouble()*spread*2f)-spread;
+		float y = position.y + (float) (random.nextDouble()*spread*2f)-spread;
+		particles.set(i, x, y, velocity*cos, velocity*sin, acceleration*cos, acceleration*sin);
 	}
 	
 	@Override
 	public void setPosition(PVector position) {
 		this.position = position;
 	}
+	
+	@Override
+	public PVector getPosition() {
+		return position;
+	}
 
 	@Override
 	public ParticleEmission copy() {
@@ -1,9 +1,8 @@
 package ParticleSystem.emissions;
 
-import java.util.Random;
-import java.util.function.Consumer;
+import java.util.SplittableRandom;
 
-import ParticleSystem.Particle;
+import ParticleSystem.Particles;
 import processing.core.PVector;
 
 /**
@@ -22,9 +21,9 @@ public class DirectionalEmission implements ParticleEmission {
 	private float spread;
 	private float angle;
 	
-	private PVector newPosition;
-	private PVector newVelocity;
-	private PVector newAcceleration;
+	// Fixed by angle
+	private float cos, sin;
+	private float normalX, normalY;
 	
 	/**
      * Create a new DirectionalEmission.
@@ -41,43 +40,18 @@ public class DirectionalEmission implements ParticleEmission {
 		this.acceleration = acceleration;
 		this.spread = spread;
 		this.angle = angle;
-	}
-	
-	public void generateNew() {
-		newPosition();
-		newVelocity();
-		newAcceleration();
-	}
-	
-	private void newPosition() {
-		PVector p = position.copy();
-		Random ran = new Random();
-		float offset = (ran.nextFloat()*spread*2f)-spread;
-		p.x += (float) (offset*Math.cos(angle+Math.PI/2));
-		p.y += (float) (offset*Math.sin(angle+Math.PI/2));
-		newPosition = p;
-	}
-
-	private void newVelocity() {
-		newVelocity = new PVector();
-		newVelocity.x = (float) (velocity*Math.cos(angle));
-		newVelocity.y = (float) (velocity*Math.sin(angle));
-	}
-
-	private void newAcceleration() {
-		newAcceleration = new PVector();
-		newAcceleration.x = (float) (acceleration*Math.cos(angle));
-		newAcceleration.y = (float) (acceleration*Math.sin(angle));
+		cos = (float) Math.cos(angle);
+		sin = (float) Math.sin(angle);
+		normalX = (float) Math.cos(angle+Math.PI/2);
+		normalY = (float) Math.sin(angle+Math.PI/2);
 	}
 	
 	@Override
-	public Consumer<Particle> getConsumer() {
-		return p -> {
-			generateNew();
-			p.position = newPosition;
-			p.velocity = newVelocity;
-			p.acceleration = newAcceleration;
-		};
+	public void emit(Particles particles, int i, SplittableRandom random) {
+		float offset = (float) (random.nextDouble()*spread*2f)-spread;
+		float x = position.x + offset*normalX;
+		float y = position.y + offset*normalY;
+		particles.set(i, x, y, velocity*cos, velocity*sin, acceleration*cos, acceleration*sin);
 	}
 	
 	@Override
@@ -85,6 +59,11 @@ public class DirectionalEmission implements ParticleEmission {
 		this.position = position;
 	}
 	
+	@Override
+	public PVector getPosition() {
+		return position;
+	}
+	
 	@Override
 	public ParticleEmission copy() {
 		return new  DirectionalEmission(position, velocity, acceleration, spread, angle);
@@ -1,14 +1,24 @@
 package ParticleSystem.emissions;
 
-import java.util.function.Consumer;
+import java.util.SplittableRandom;
 
-import ParticleSystem.Particle;
+import ParticleSystem.Particles;
 import processing.core.PVector;
 
 public interface ParticleEmission {
-	public Consumer<Particle> getConsumer();
+	/**
+	 * Sets the spawn position, velocity and acceleration of a new particle.
+	 *
+	 * @param particles storage to write to, see {@link Particles#set}
+	 * @param i         slot of the new particle
+	 * @param random    the particle system's generator, use only this for
+	 *                  reproducible output
+	 */
+	public void emit(Particles particles, int i, SplittableRandom random);
 	
 	public void setPosition(PVector position);
 	
+	public PVector getPosition();
+	
 	public ParticleEmission copy();
 }
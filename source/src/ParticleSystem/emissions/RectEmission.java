@@ -1,9 +1,8 @@
 package ParticleSystem.emissions;
 
-import java.util.Random;
-import java.util.function.Consumer;
+import java.util.SplittableRandom;
 
-import ParticleSystem.Particle;
+import ParticleSystem.Particles;
 import processing.core.PVector;
 
 /**
@@ -21,10 +20,6 @@ public class RectEmission implements ParticleEmission {
 	private int width;
 	private int height;
 	
-	private PVector newPosition;
-	private PVector newVelocity;
-	private PVector newAcceleration;
-	
 	/**
      * Create a new AreaEmission.
 
@@ -42,41 +37,14 @@ public class RectEmission implements ParticleEmission {
 		this.height = height;
 	}
 
-	public void generateNew() {
-		float phi = (float) (2*Math.PI*Math.random());
-		newPosition();
-		newVelocity(phi);
-		newAcceleration(phi);
-	}
-	
-	private void newPosition() {
-		PVector p = position.copy();
-		Random ran = new Random();
-		p.x += (ran.nextFloat()*width/2f)-width/2;
-		p.y += (ran.nextFloat()*height/2f)-height/2;
-		newPosition = p;
-	}
-
-	private void newVelocity(float phi) {
-		newVelocity = new PVector();
-		newVelocity.x = (float) (velocity*Math.cos(phi));
-		newVelocity.y = (float) (velocity*Math.sin(phi));
-	}
-
-	private void newAcceleration(float phi) {
-		newAcceleration = new PVector();
-		newAcceleration.x = (float) (acceleration*Math.cos(phi));
-		newAcceleration.y = (float) (acceleration*Math.sin(phi));
-	}
-	
 	@Override
-	public Consumer<Particle> getConsumer() {
-		return p -> {
-			generateNew();
-			p.position = newPosition;
-			p.velocity = newVelocity;
-			p.acceleration = newAcceleration;
-		};
+	public void emit(Particles particles, int i, SplittableRandom random) {
+		float phi = (float) (2*Math.PI*random.nextDouble());
+		float cos = (float) Math.cos(phi);
+		float sin = (float) Math.sin(phi);
+		float x = position.x + (float) (random.nextDouble()*width/2f)-width/2;
+		float y = position.y + (float) (random.nextDouble()*height/2f)-height/2;
+		particles.set(i, x, y, velocity*cos, velocity*sin, acceleration*cos, acceleration*sin);
 	}
 	
 	@Override
@@ -84,6 +52,11 @@ public class RectEmission implements ParticleEmission {
 		this.position = position;
 	}
 	
+	@Override
+	public PVector getPosition() {
+		return position;
+	}
+	
 	@Override
 	public ParticleEmission copy() {
 		return new  RectEmission(position, velocity, acceleration, width, height);
@@ -11,6 +11,8 @@ import processing.core.PApplet;
  * <p>
  * A experimental Controller (could change)
  * Spawns and runs particle system when particle lives for given time or dies.
+ * Finished child systems are kept in a pool and reset for the next child,
+ * rather than copied from the template each time.
  *
  * @author petturtle
  */
@@ -22,6 +24,7 @@ public class ParticleChildController implements ParticleEventListener {
 	
 	private ParticleSystem copySystem;
 	private ArrayList<ParticleSystem> particleSystems;
+	private ArrayList<ParticleSystem> pool = new ArrayList<ParticleSystem>();
 	
 	/**
 	 * @param particleSystem particle system need to have a no loop controller
@@ -62,13 +65,16 @@ public class ParticleChildController implements ParticleEventListener {
 	
 	@Override
 	public void onUpdateEvent() {
-		ArrayList<ParticleSystem> temp = new ArrayList<ParticleSystem>();
-		for(ParticleSystem particleSystem : particleSystems) {
+		for (int i = particleSystems.size() - 1; i >= 0; i--) {
+			ParticleSystem particleSystem = particleSystems.get(i);
 			particleSystem.run();
-			if (!particleSystem.spawn && !particleSystem.particles.hasActiveParticles())
-				temp.add(particleSystem);
+			if (!particleSystem.spawn && !particleSystem.particles.hasActiveParticles()) {
+				int last = particleSystems.size() - 1;
+				particleSystems.set(i, particleSystems.get(last)); // already run
+				particleSystems.remove(last);
+				pool.add(particleSystem);
+			}
 		}
-		particleSystems.removeAll(temp);
 	}
 	
 	@Override
@@ -83,14 +89,29 @@ public class ParticleChildController implements ParticleEventListener {
 			newChild(particle);
 	}
 	
+	@Override
+	public void reset() {
+		pool.addAll(particleSystems);
+		particleSystems.clear();
+	}
+	
 	@Override
 	public ParticleEventListener copy() {
-		return new ParticleChildController(copySystem.copy(), delay);
+		ParticleChildController copy = new ParticleChildController(copySystem.copy(), delay, spawnOnDeath);
+		copy.hasDelay = hasDelay;
+		return copy;
 	}
 	
 	private void newChild(Particle p) {
-		ParticleSystem newSystem = copySystem.copy();
-		newSystem.emission.setPosition(p.position);
+		ParticleSystem newSystem;
+		if (pool.isEmpty()) {
+			newSystem = copySystem.copy();
+			newSystem.emission.setPosition(p.position.copy()); // own position, particle views are reused
+		} else {
+			newSystem = pool.remove(pool.size() - 1);
+			newSystem.reset();
+			newSystem.emission.getPosition().set(p.position);
+		}
 		particleSystems.add(newSystem);
 	}
 }
@@ -14,5 +14,11 @@ public interface ParticleEventListener {
 	
 	default public void onParticleDeathEvent(Particle particle) {};
 	
+	/**
+	 * Returns the listener to its initial state, when its particle system is
+	 * reused (see {@link ParticleSystem#reset()}).
+	 */
+	default public void reset() {};
+	
 	public ParticleEventListener copy();
 }
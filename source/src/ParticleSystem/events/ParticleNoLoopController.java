@@ -26,6 +26,7 @@ public class ParticleNoLoopController implements ParticleEventListener {
 		totalSpawned = 0;
 	}
 	
+	@Override
 	public void reset() {
 		particleSystem.spawn = true;
 		totalSpawned = 0;
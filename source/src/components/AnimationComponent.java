@@ -37,7 +37,7 @@ public class AnimationComponent {
 			length = frames.size() - 1;
 			start = 0;
 			currentFrame = start;
-			firstFrame = applet.frameCount;
+			firstFrame = applet.clock.getTick();
 		}
 	}
 
@@ -56,10 +56,20 @@ public class AnimationComponent {
 			this.length = length;
 			start = 0;
 			currentFrame = start;
-			firstFrame = applet.frameCount;
+			firstFrame = applet.clock.getTick();
 		}
 	}
 
+	/**
+	 * Restarts the current animation sequence from its first frame.
+	 */
+	public void restart() {
+		start = 0;
+		currentFrame = start;
+		firstFrame = applet.clock.getTick();
+		ended = false;
+	}
+
 	/**
 	 * This method controls the animation of elements (cycles through frames).
 	 * @return PImage image
@@ -68,7 +78,7 @@ public class AnimationComponent {
 		
 		PImage frame = frames.get((int) currentFrame);
 
-		if ((applet.frameCount - firstFrame) % rate == 0) {
+		if ((applet.clock.getTick() - firstFrame) % rate == 0) {
 			currentFrame += applet.deltaTime;
 			if (currentFrame > length) {
 				if (!loop) {
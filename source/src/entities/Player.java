@@ -1,7 +1,9 @@
 package entities;
 
 import processing.core.*;
+import projectiles.ProjectilePool;
 import projectiles.Swing;
+import sidescroller.EventBus;
 import sidescroller.Options;
 //import sidescroller.PClass;
 import sidescroller.SideScroller;
@@ -43,6 +45,12 @@ public final class Player extends EditableObject {
 	public float speedY;
 
 	private static final int collisionRange = 145;
+	private final ArrayList<CollidableObject> nearby = new ArrayList<CollidableObject>(); // collidables in range, reused
+
+	/**
+	 * Collision categories the player is stopped by, see {@link Tileset}.
+	 */
+	public int mask = Tileset.CATEGORY_ALL;
 
 	private int speedWalk;
 	private int speedJump;
@@ -60,6 +68,8 @@ public final class Player extends EditableObject {
 
 	// Player Projectile
 	public ArrayList<Swing> swings;
+	private ProjectilePool<Swing> swingPool;
+	private static final int SWINGS = 16; // most swings alive at once
 
 	// Animation Component
 	public AnimationComponent animation;
@@ -71,6 +81,17 @@ public final class Player extends EditableObject {
 		WALK, IDLE, SQUISH, FALL, ATTACK, DASH, DASH_ATTACK
 	}
 
+	/**
+	 * Current action (animation state).
+	 */
+	private ACTIONS action;
+
+	// Animation handles
+	private static final int ANIMATION_WALK = Tileset.getAnimationId("PLAYER::WALK");
+	private static final int ANIMATION_IDLE = Tileset.getAnimationId("PLAYER::IDLE");
+	private static final int ANIMATION_SQUISH = Tileset.getAnimationId("PLAYER::SQUISH");
+	private static final int ANIMATION_ATTACK = Tileset.getAnimationId("PLAYER::ATTACK");
+
 	/**
 	 * Constructor
 	 * 
@@ -83,7 +104,8 @@ public final class Player extends EditableObject {
 		gravity = 2;
 
 		animation = new AnimationComponent();
-		swings = new ArrayList<Swing>();
+		swings = new ArrayList<Swing>(SWINGS);
+		swingPool = new ProjectilePool<Swing>(SWINGS, () -> new Swing(applet));
 
 		// Set life
 		lifeCapacity = 3;
@@ -208,21 +230,25 @@ public final class Player extends EditableObject {
 		if (applet.mousePressed && !attack) {
 			if (applet.mouseButton == LEFT) {
 				attack = true;
-				applet.camera.shake(0.3f); // todo remove
 				if (!dashing) {
 					setAnimation(ACTIONS.ATTACK);
 				} else if (dashing) {
 					setAnimation(ACTIONS.DASH_ATTACK);
 				}
+				applet.events.post(EventBus.Type.ATTACK, this, null, pos.x, pos.y);
 			}
 
 			// Create Swing Projectile
-			swings.add(new Swing(applet, (int) pos.x, (int) pos.y, direction));
+			Swing swing = swingPool.obtain();
+			if (swing != null) {
+				swing.spawn((int) pos.x, (int) pos.y, direction);
+				swings.add(swing);
+			}
 		}
 
 		// End Dash
 
-		if (animation.name == "DASH" && animation.ended) {
+		if (action == ACTIONS.DASH && animation.ended) {
 			dashing = false;
 			if (flying) {
 				speedY = 0;
@@ -230,7 +256,7 @@ public final class Player extends EditableObject {
 			setAnimation(ACTIONS.WALK);
 		}
 		// End Dash Attack
-		if (animation.name == "DASH_ATTACK" && animation.ended) {
+		if (action == ACTIONS.DASH_ATTACK && animation.ended) {
 			dashing = false;
 			attack = false;
 			if (flying) {
@@ -239,7 +265,7 @@ public final class Player extends EditableObject {
 			setAnimation(ACTIONS.WALK);
 		}
 		// End Attack
-		if (animation.name == "ATTACK" && animation.ended) {
+		if (action == ACTIONS.ATTACK && animation.ended) {
 			attack = false;
 			if (speedX != 0) {
 				setAnimation(ACTIONS.WALK);
@@ -256,10 +282,12 @@ public final class Player extends EditableObject {
 			applet.ellipse(pos.x, pos.y, collisionRange * 2, collisionRange * 2);
 		}
 
-		// All Collision Global Check
-		for (int i = 0; i < applet.collidableObjects.size(); i++) {
-			CollidableObject collision = applet.collidableObjects.get(i);
-            if (Util.fastInRange(pos, collision.pos, collisionRange)) { // In Player Range
+		// All Collision Global Check (broadphase on the collision layer)
+		applet.collisionLayer.query(pos.x - collisionRange, pos.y - collisionRange, pos.x + collisionRange,
+				pos.y + collisionRange, nearby);
+		for (int i = 0; i < nearby.size(); i++) {
+			CollidableObject collision = nearby.get(i);
+			if ((collision.category & mask) != 0 && Util.fastInRange(pos, collision.pos, collisionRange)) { // In Player Range
 				if (SideScroller.DEBUG) {
 					applet.strokeWeight(2);
 					applet.rect(collision.pos.x, collision.pos.y, collision.width, collision.height);
@@ -310,7 +338,7 @@ public final class Player extends EditableObject {
 		// On Ground Event
 		if (!flying && pflying && !attack && !dashing) {
 			setAnimation(ACTIONS.SQUISH);
-			applet.camera.shake(0.4f); // todo remove
+			applet.events.post(EventBus.Type.COLLISION_BEGIN, this, null, pos.x, pos.y);
 		}
 
 		// Idle Animation
@@ -318,15 +346,15 @@ public final class Player extends EditableObject {
 			setAnimation(ACTIONS.IDLE);
 		}
 
-		if (animation.name == "SQUISH" && speedX != 0 && !attack) {
+		if (action == ACTIONS.SQUISH && speedX != 0 && !attack) {
 			setAnimation(ACTIONS.WALK);
 		}
 
-		if (animation.name == "WALK" && speedX == 0 && !attack) {
+		if (action == ACTIONS.WALK && speedX == 0 && !attack) {
 			setAnimation(ACTIONS.IDLE);
 		}
 
-		if (speedX == 0 && animation.name == "WALK" && attack) {
+		if (speedX == 0 && action == ACTIONS.WALK && attack) {
 			attack = false;
 		}
 
@@ -344,11 +372,18 @@ public final class Player extends EditableObject {
 			pos.x = 0; // TODO set to spawn loc
 			speedX = 0;
 			speedY = 0;
+			storePrevPos(); // don't draw the jump interpolated
 		}
 
 		// Update Swing Projectiles
-		for (int i = 0; i < swings.size(); i++) {
-			swings.get(i).update();
+		for (int i = swings.size() - 1; i >= 0; i--) {
+			Swing swing = swings.get(i);
+			swing.update();
+			if (swing.animation.ended) {
+				applet.events.post(EventBus.Type.ANIMATION_END, swing, null, swing.pos.x, swing.pos.y);
+				swings.remove(i);
+				swing.despawn();
+			}
 		}
 		image = animation.animate();
 	}
@@ -417,38 +452,39 @@ public final class Player extends EditableObject {
 	private void setAnimation(ACTIONS anim) {
 		switch (anim) {
 			case WALK :
-				animation.changeAnimation(getAnimation("PLAYER::WALK"), true, 6);
+				animation.changeAnimation(getAnimation(ANIMATION_WALK), true, 6);
 				break;
 			case IDLE :
-				animation.changeAnimation(getAnimation("PLAYER::IDLE"), true, 20);
+				animation.changeAnimation(getAnimation(ANIMATION_IDLE), true, 20);
 				break;
 			case SQUISH :
-				animation.changeAnimation(getAnimation("PLAYER::SQUISH"), false, 4);
+				animation.changeAnimation(getAnimation(ANIMATION_SQUISH), false, 4);
 				break;
 			case FALL :
-				animation.changeAnimation(getAnimation("PLAYER::SQUISH"), false, 6);
+				animation.changeAnimation(getAnimation(ANIMATION_SQUISH), false, 6);
 				break;
 			case ATTACK :
-				animation.changeAnimation(getAnimation("PLAYER::ATTACK"), false, 4);
+				animation.changeAnimation(getAnimation(ANIMATION_ATTACK), false, 4);
 				break;
 			case DASH :
-				animation.changeAnimation(getAnimation("PLAYER::SQUISH"), false, 6);
+				animation.changeAnimation(getAnimation(ANIMATION_SQUISH), false, 6);
 				break;
 			case DASH_ATTACK :
-				animation.changeAnimation(getAnimation("PLAYER::ATTACK"), false, 4, 2 + animation.remainingFrames());
+				animation.changeAnimation(getAnimation(ANIMATION_ATTACK), false, 4, 2 + animation.remainingFrames());
 				break;
 		}
 		animation.ended = false;
 		animation.name = anim.name();
+		action = anim;
 	}
 
 	/**
 	 * getter for the currently used animation.
 	 * 
-	 * @param id the animation id
+	 * @param id the animation handle
 	 * @return the animation being used.
 	 */
-	private ArrayList<PImage> getAnimation(String name) {
-		return Tileset.getAnimation(name);
+	private ArrayList<PImage> getAnimation(int id) {
+		return Tileset.getAnimation(id);
 	}
 }
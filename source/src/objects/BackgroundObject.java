@@ -56,8 +56,14 @@ public class BackgroundObject extends EditableObject {
 	}
 
 	public void setGraphic(String name) {
-		image = Tileset.getTile(name);
+		setGraphic(Tileset.getTileId(name));
 		id = name;
+	}
+
+	public void setGraphic(int tile) {
+		this.tile = tile;
+		image = Tileset.getTile(tile);
+		id = Tileset.getTileName(tile);
 		width = image.width;
 		height = image.height;
 	}
@@ -8,7 +8,11 @@ public class CollidableObject extends EditableObject {
 
 	private PImage image;
 
-	public String flag;
+	/**
+	 * Collision filter bits, see {@link Tileset}.
+	 */
+	public int category;
+	public int mask;
 
 	private float pixelOffsetX = 0;
 	private float pixelOffsetY = 0;
@@ -16,7 +20,8 @@ public class CollidableObject extends EditableObject {
 	public CollidableObject(SideScroller a) {
 		super(a);
 
-		flag = "";
+		category = Tileset.CATEGORY_SOLID;
+		mask = Tileset.CATEGORY_ALL;
 		type = type.COLLISION;
 		pos = new PVector(0, 0);
 	}
@@ -75,9 +80,24 @@ public class CollidableObject extends EditableObject {
 	}
 
 	public void setGraphic(String name) {
-		image = Tileset.getTile(name);
+		setGraphic(Tileset.getTileId(name));
 		id = name;
+	}
+
+	public void setGraphic(int tile) {
+		this.tile = tile;
+		image = Tileset.getTile(tile);
+		id = Tileset.getTileName(tile);
 		width = image.width;
 		height = image.height;
+		category = Tileset.getTileCategory(tile);
+		mask = Tileset.getTileMask(tile);
+	}
+
+	/**
+	 * @return true if this object's mask includes the given category.
+	 */
+	public boolean collidesWith(int category) {
+		return (mask & category) != 0;
 	}
 }
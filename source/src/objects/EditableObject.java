@@ -1,5 +1,6 @@
 package objects;
 
+import processing.core.PApplet;
 import processing.core.PImage;
 import processing.core.PVector;
 import scene.SceneMapEditor;
@@ -15,11 +16,15 @@ public class EditableObject extends PClass {
 
 	// Base Data
 	public PVector pos;
+	public PVector prevPos; // pos at the start of the last simulation update (null if not simulated)
 	public int width;
 	public int height;
 
 	// Image data
 	public String id;
+	public int tile = -1; // tileset handle of id, -1 if not a tile
+
+	public int indexId = -1; // id in a SpatialIndex, -1 when not in one
 
 	enum type {
 		COLLISION, BACKGROUND, OBJECT
@@ -35,11 +40,11 @@ public class EditableObject extends PClass {
 
 	public boolean child;
 
-	// Arrows Graphics
-	private PImage editArrowX;
-	private PImage editArrowY;
-	private PImage editArrowXActive;
-	private PImage editArrowYActive;
+	// Arrows Graphics (shared by all objects)
+	private static PImage editArrowX;
+	private static PImage editArrowY;
+	private static PImage editArrowXActive;
+	private static PImage editArrowYActive;
 
 	// Map Editor Scene
 	private SceneMapEditor scene;
@@ -47,6 +52,11 @@ public class EditableObject extends PClass {
 	protected int editOffsetX;
 	protected int editOffsetY;
 
+	/**
+	 * Position when the current drag began (journaled on release).
+	 */
+	private PVector editStart;
+
 	public EditableObject(SideScroller a) {
 		super(a);
 
@@ -55,10 +65,37 @@ public class EditableObject extends PClass {
 		scene = (SceneMapEditor) a.mapEditor;
 
 		// Get Edit Arrows
-		editArrowX = util.pg(applet.graphicsSheet.get(268, 278, 6, 5), 4);
-		editArrowY = util.pg(applet.graphicsSheet.get(275, 278, 5, 6), 4);
-		editArrowXActive = util.pg(applet.graphicsSheet.get(268, 284, 6, 5), 4);
-		editArrowYActive = util.pg(applet.graphicsSheet.get(275, 284, 5, 6), 4);
+		if (editArrowX == null) {
+			editArrowX = util.pg(applet.graphicsSheet.get(268, 278, 6, 5), 4);
+			editArrowY = util.pg(applet.graphicsSheet.get(275, 278, 5, 6), 4);
+			editArrowXActive = util.pg(applet.graphicsSheet.get(268, 284, 6, 5), 4);
+			editArrowYActive = util.pg(applet.graphicsSheet.get(275, 284, 5, 6), 4);
+		}
+	}
+
+	/**
+	 * Stores the current position as the start of a simulation update (or,
+	 * outside an update, so that the object is drawn exactly where it is).
+	 */
+	public void storePrevPos() {
+		if (prevPos == null) {
+			prevPos = pos.copy();
+		} else {
+			prevPos.set(pos);
+		}
+	}
+
+	/**
+	 * @param alpha fraction of the current update elapsed, see
+	 *              {@link sidescroller.SimulationClock#getAlpha()}.
+	 * @return position to draw the object at, interpolated between prevPos and
+	 *         pos.
+	 */
+	public PVector getRenderPos(float alpha, PVector out) {
+		if (prevPos == null) {
+			return out.set(pos);
+		}
+		return out.set(PApplet.lerp(prevPos.x, pos.x, alpha), PApplet.lerp(prevPos.y, pos.y, alpha));
 	}
 
 	/**
@@ -119,6 +156,10 @@ public class EditableObject extends PClass {
 		}
 
 		if (applet.mouseReleaseEvent) {
+			if ((focusX || focusY || focusM) && editStart != null && !editStart.equals(pos)) {
+				scene.journal.move(this, editStart);
+			}
+			editStart = null;
 			focusX = false; // defocus move arrows
 			focusY = false; // defocus move arrows
 			focusM = false;
@@ -145,6 +186,7 @@ public class EditableObject extends PClass {
 		
 		if (focus) { // When Focused
 			if (applet.mousePressEvent) {
+				editStart = pos.copy();
 				if (mouseHoverX()) {
 					focusX = true;
 					focusY = false;
@@ -178,7 +220,9 @@ public class EditableObject extends PClass {
 							copy.pos = pos.copy();
 							copy.editOffsetX = editOffsetX;
 							copy.editOffsetY = editOffsetY;
+							copy.editStart = pos.copy();
 							applet.collidableObjects.add((CollidableObject) copy);
+							scene.journal.add(copy);
 							break;
 						case OBJECT :
 							copy = Tileset.getObjectClass(id);
@@ -189,7 +233,10 @@ public class EditableObject extends PClass {
 							copy.pos.y = pos.y;
 							copy.editOffsetX = editOffsetX;
 							copy.editOffsetY = editOffsetY;
+							copy.editStart = pos.copy();
 							applet.gameObjects.add((GameObject) copy);
+							applet.gameIndex.add((GameObject) copy);
+							scene.journal.add(copy);
 							switch (id) {
 								case "MIRROR_BOX" :
 									((MirrorBoxObject) applet.gameObjects.get(applet.gameObjects.size()
@@ -217,6 +264,9 @@ public class EditableObject extends PClass {
 				pos = new PVector(Util.roundToNearest(applet.getMouseX() + editOffsetX, SideScroller.snapSize),
 						Util.roundToNearest(applet.getMouseY() + editOffsetY, SideScroller.snapSize));
 			}
+			if (focusX || focusY || focusM) {
+				moved();
+			}
 		}
 	}
 
@@ -224,6 +274,23 @@ public class EditableObject extends PClass {
 		focus = true;
 	}
 
+	public void display() {
+	}
+
+	/**
+	 * Called after the object's position is edited (dragged in the editor or
+	 * replayed from the journal).
+	 */
+	public void moved() {
+	}
+
+	/**
+	 * Sets the object's image (and size) to a tileset tile; used to recreate tiles
+	 * from a {@link TileLayer}. Objects that are not tiles ignore it.
+	 */
+	public void setGraphic(int tile) {
+	}
+
 	/**
 	 * Is mouse hovering the x-axis slider for the object?
 	 * 
@@ -15,6 +15,7 @@ public class EditorItem extends PClass {
 	private PImage image;
 
 	public String id;
+	public int tile;
 	public tileType type;
 
 	private String mode;
@@ -57,6 +58,7 @@ public class EditorItem extends PClass {
 							c.pos.y = realPos.y;
 							c.focus();
 							applet.collidableObjects.add(c);
+							applet.mapEditor.journal.add(c);
 							break;
 						case BACKGROUND :
 							BackgroundObject bObject = new BackgroundObject(applet, id, 0, 0);
@@ -64,6 +66,7 @@ public class EditorItem extends PClass {
 							bObject.pos.y = realPos.y;
 							bObject.focus();
 							applet.backgroundObjects.add(bObject);
+							applet.mapEditor.journal.add(bObject);
 							break;
 						case OBJECT :
 							GameObject obj = Tileset.getObjectClass(id);
@@ -71,6 +74,8 @@ public class EditorItem extends PClass {
 							obj.pos.x = realPos.x;
 							obj.pos.y = realPos.y;
 							applet.gameObjects.add(obj);
+							applet.gameIndex.add(obj);
+							applet.mapEditor.journal.add(obj);
 							break;
 						default :
 							break;
@@ -95,9 +100,14 @@ public class EditorItem extends PClass {
 	}
 
 	public void setTile(String name) {
-		image = Tileset.getTile(name);
-		type = Tileset.getTileType(name);
+		setTile(Tileset.getTileId(name));
+	}
+
+	public void setTile(int tile) {
+		this.tile = tile;
+		image = Tileset.getTile(tile);
+		type = Tileset.getTileType(tile);
 
-		id = name;
+		id = Tileset.getTileName(tile);
 	}
 }
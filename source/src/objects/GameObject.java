@@ -4,13 +4,15 @@ import java.util.ArrayList;
 
 import components.AnimationComponent;
 import processing.core.PImage;
+import projectiles.ProjectileObject;
+import sidescroller.EventBus;
 import sidescroller.SideScroller;
 import sidescroller.Tileset;
 
 /**
  * Extends {@link EditableObject}.
  */
-public class GameObject extends EditableObject {
+public class GameObject extends EditableObject implements EventBus.Listener {
 
 	// Animation Component
 	public AnimationComponent animation;
@@ -20,6 +22,14 @@ public class GameObject extends EditableObject {
 
 	public PImage image;
 
+	/**
+	 * Whether the object was skipped (not updated) this frame for being outside
+	 * the active region, see {@link #wake()}.
+	 */
+	public boolean sleeping;
+	private static final int WAKE_TICKS = 60; // kept awake this long by wake()
+	private int wakeUntil;
+
 	public GameObject(SideScroller a) {
 		super(a);
 
@@ -28,12 +38,55 @@ public class GameObject extends EditableObject {
 
 	public void display() {
 	}
+
+	/**
+	 * First update phase: may run in parallel with other objects, so it must
+	 * only write to this object (e.g. advance its animation). See
+	 * {@link sidescroller.ParallelUpdate}.
+	 */
+	public void prepare() {
+	}
+
+	/**
+	 * Second update phase, run serially after every object is prepared.
+	 */
 	public void update() {
 	}
 
 	public void delete() {
 	}
 
+	/**
+	 * Called, in the serial phase, for each magic projectile overlapping the
+	 * object (e.g. mirrors reflect it).
+	 */
+	public void touch(ProjectileObject projectile) {
+	}
+
+	@Override
+	public void moved() {
+		applet.gameIndex.move(this);
+	}
+
+	/**
+	 * Keeps the object awake (updated) for a while even when out of range, e.g.
+	 * after an event.
+	 */
+	public void wake() {
+		wakeUntil = applet.clock.getTick() + WAKE_TICKS;
+	}
+
+	public boolean isWoken() {
+		return applet.clock.getTick() < wakeUntil;
+	}
+
+	/**
+	 * Receives the events targeted at this object (e.g. hits), see
+	 * {@link EventBus}.
+	 */
+	public void onEvent(EventBus.Event event) {
+	}
+
 	protected ArrayList<PImage> getAnimation(String name) {
 		return Tileset.getAnimation(name);
 	}
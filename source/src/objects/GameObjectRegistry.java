@@ -0,0 +1,87 @@
+package objects;
+
+import java.util.HashMap;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import processing.core.PApplet;
+import sidescroller.SideScroller;
+
+/**
+ * <h1>GameObjectRegistry Class</h1>
+ * <p>
+ * Maps object ids (as used in tileData.json and level files) to the factory
+ * that creates them. The built-in objects are registered here; more can be
+ * added at runtime with {@link #register(String, Factory)} or by shipping a
+ * {@link Provider} listed in
+ * <code>META-INF/services/objects.GameObjectRegistry$Provider</code>, which is
+ * discovered with {@link ServiceLoader} on first use.
+ * </p>
+ */
+public final class GameObjectRegistry {
+
+	/**
+	 * Creates one kind of object. Should only construct: sprites and animations
+	 * are best resolved once (e.g. as static tileset handles), not per object.
+	 */
+	public interface Factory {
+		GameObject create(SideScroller applet);
+	}
+
+	/**
+	 * Service interface for registering objects from outside this package.
+	 */
+	public interface Provider {
+		void registerObjects();
+	}
+
+	private static final HashMap<String, Factory> factories = new HashMap<String, Factory>();
+	private static boolean providersLoaded;
+
+	static {
+		register("MAGIC_SOURCE", MagicSourceObject::new);
+		register("MIRROR_BOX", MirrorBoxObject::new);
+	}
+
+	private GameObjectRegistry() {
+	}
+
+	/**
+	 * Registers (or replaces) the factory for an object id.
+	 */
+	public static void register(String id, Factory factory) {
+		factories.put(id, factory);
+	}
+
+	/**
+	 * @return new object for the id, or a plain {@link GameObject} if the id is
+	 *         not registered.
+	 */
+	public static GameObject create(SideScroller applet, String id) {
+		loadProviders();
+		Factory factory = factories.get(id);
+		if (factory == null) {
+			return new GameObject(applet);
+		}
+		return factory.create(applet);
+	}
+
+	public static boolean isRegistered(String id) {
+		loadProviders();
+		return factories.containsKey(id);
+	}
+
+	private static void loadProviders() {
+		if (providersLoaded) {
+			return;
+		}
+		providersLoaded = true;
+		try {
+			for (Provider provider : ServiceLoader.load(Provider.class)) {
+				provider.registerObjects();
+			}
+		} catch (ServiceConfigurationError e) {
+			PApplet.println("<GameObjectRegistry> Error while loading object providers ( " + e.getMessage() + " ) >");
+		}
+	}
+}
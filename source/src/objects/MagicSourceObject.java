@@ -3,6 +3,7 @@ package objects;
 import jdk.tools.jlink.internal.TaskHelper.Option.Processing;
 import projectiles.MagicProjectile;
 import projectiles.Swing;
+import sidescroller.EventBus;
 import sidescroller.SideScroller;
 import sidescroller.Tileset;
 
@@ -11,6 +12,9 @@ import sidescroller.Tileset;
  */
 public class MagicSourceObject extends GameObject {
 
+	private static final int TILE = Tileset.getTileId("MAGIC_SOURCE");
+	private static final int ANIMATION_IDLE = Tileset.getAnimationId("MAGIC::IDLE");
+
 	public MagicSourceObject(SideScroller a) {
 		super(a);
 
@@ -18,10 +22,10 @@ public class MagicSourceObject extends GameObject {
 		id = "MAGIC_SOURCE";
 
 		// Default image
-		image = Tileset.getTile("MAGIC_SOURCE");
+		image = Tileset.getTile(TILE);
 
 		// Setup Animation		
-		animation.changeAnimation(Tileset.getAnimation("MAGIC::IDLE"), true, 6); // TODO: add magicsheet to tileset
+		animation.changeAnimation(Tileset.getAnimation(ANIMATION_IDLE), true, 6); // TODO: add magicsheet to tileset
 
 		width = 48;
 		height = 48;
@@ -40,36 +44,34 @@ public class MagicSourceObject extends GameObject {
 	int shotDelay = 500;
 	
 	@Override
-	public void update() {
+	public void prepare() {
 		image = animation.animate();
+	}
 
-		// Create new Magic Projectiles
-		for (int i = 0; i < applet.player.swings.size(); i++) {
-			Swing swing = applet.player.swings.get(i);
+	/**
+	 * Create new Magic Projectiles when hit by a swing.
+	 */
+	@Override
+	public void onEvent(EventBus.Event event) {
+		if (event.type == EventBus.Type.HIT && event.source instanceof Swing) {
+			Swing swing = (Swing) event.source;
+			if (!swing.activated) {
 
-			if (collidesWithSwing(swing)) {
-				if (!swing.activated) {
-					
-					if(applet.millis() > oldMillis + shotDelay) {
-						oldMillis = applet.millis();
-						
-						applet.projectileObjects
-							.add(new MagicProjectile(applet, (int) pos.x, (int) pos.y, swing.direction));
+				if(applet.millis() > oldMillis + shotDelay) {
+					oldMillis = applet.millis();
 
-						swing.activated = true;
+					MagicProjectile projectile = applet.magicProjectiles.obtain();
+					if (projectile != null) {
+						projectile.spawn((int) pos.x, (int) pos.y, swing.direction);
+						applet.projectileObjects.add(projectile);
 					}
+
+					swing.activated = true;
 				}
 			}
 		}
 	}
 
-	public boolean collidesWithSwing(Swing swing) {
-		return (swing.pos.x + swing.width / 2 > pos.x - width / 2
-				&& swing.pos.x - swing.width / 2 < pos.x + width / 2)
-				&& (swing.pos.y + swing.height / 2 > pos.y - height / 2
-						&& swing.pos.y - swing.height / 2 < pos.y + height / 2);
-	}
-
 	public boolean collidesWithPlayer() {
 		return (applet.player.pos.x + applet.player.width / 2 > pos.x - width / 2
 				&& applet.player.pos.x - applet.player.width / 2 < pos.x + width / 2)
@@ -4,11 +4,16 @@ import processing.core.PApplet;
 import projectiles.MagicProjectile;
 import projectiles.ProjectileObject;
 import projectiles.Swing;
+import sidescroller.EventBus;
 import sidescroller.SideScroller;
 import sidescroller.Tileset;
 
 public class MirrorBoxObject extends GameObject {
 
+	private static final int TILE = Tileset.getTileId("MIRROR_BOX");
+	private static final int TILE_HIT = Tileset.getTileId("MIRROR_BOX_HIT");
+	private static final int ANIMATION_ROTATE = Tileset.getAnimationId("MIRROR_BOX::ROTATE");
+
 	public int direction;
 	public boolean rotating;
 	public boolean activated;
@@ -28,14 +33,15 @@ public class MirrorBoxObject extends GameObject {
 		type = type.OBJECT;
 
 		id = "MIRROR_BOX";
-		image = Tileset.getTile("MIRROR_BOX");
+		image = Tileset.getTile(TILE);
 
 		width = BOX_W;
 		height = BOX_H;
 
 
 		collision = new CollidableObject(applet, BOX_W, BOX_H, 0, 0, true);
-		collision.flag = "TRANSPARENT_BULLET";
+		collision.category = Tileset.getTileCategory(TILE);
+		collision.mask = Tileset.getTileMask(TILE);
 		applet.collidableObjects.add(collision);
 	}
 
@@ -56,57 +62,64 @@ public class MirrorBoxObject extends GameObject {
 		}
 	}
 
-	public void update() {
+	@Override
+	public void prepare() {
 		if (rotating) 
 	      image = animation.animate();
-		collision.pos = pos;
+	}
 
-		// Change Mirror Box Axis
-		for (int i = 0; i < applet.player.swings.size(); i++) {
-			Swing swing = applet.player.swings.get(i);
+	@Override
+	public void update() {
+		collision.pos = pos;
 
-			if (collidesWithSwing(swing)) {
-				if (!swing.activated) {
-					rotating = true;
+		activateMirrorBox(); // lit while a projectile touched it last tick
+		activated = false;
+		setMirrorDirection();
+	}
 
+	/**
+	 * Reflect Magic Projectile (the projectile finds the mirrors under it, so
+	 * mirrors do not scan every projectile).
+	 */
+	@Override
+	public void touch(ProjectileObject projectile) {
+		if (collision.collidesWith(projectile.category) && collidesWithProjectile(projectile) && !projectile.hit) {
+			activated = true;
+			projectileDirection(projectile);
+		}
+	}
 
-					// Setup Animation					
-					animation.changeAnimation(Tileset.getAnimation("MIRROR_BOX::ROTATE"), false, 1);
+	/**
+	 * Change Mirror Box Axis when hit by a swing.
+	 */
+	@Override
+	public void onEvent(EventBus.Event event) {
+		if (event.type == EventBus.Type.HIT && event.source instanceof Swing) {
+			Swing swing = (Swing) event.source;
+			if (!swing.activated) {
+				rotating = true;
 
-					swing.activated = true;
-				}
-			}
-		}
+				// Setup Animation
+				animation.changeAnimation(Tileset.getAnimation(ANIMATION_ROTATE), false, 1);
 
-		// Reflect Magic Projectile
-		for (int i = 0; i < applet.projectileObjects.size(); i++) {
-			ProjectileObject projectile = applet.projectileObjects.get(i);
-
-			activated = false;
-			if (projectile.id.equals("MAGIC")) {
-				if (collidesWithProjectile(projectile) && !projectile.hit) {
-					activated = true;
-					projectileDirection(projectile);
-				}
-				activateMirrorBox();
+				swing.activated = true;
 			}
 		}
-		setMirrorDirection();
 	}
 
 	public void activateMirrorBox() {
 		if (!rotating) {
 			if (activated) {
-				image = Tileset.getTile("MIRROR_BOX_HIT");
+				image = Tileset.getTile(TILE_HIT);
 			} else {
-				image = Tileset.getTile("MIRROR_BOX");
+				image = Tileset.getTile(TILE);
 			}
 		}
 	}
 
 	public void setMirrorDirection() {
 		if (animation.ended && rotating) {
-			image = Tileset.getTile("MIRROR_BOX");
+			image = Tileset.getTile(TILE);
 			rotating = false;
 			direction = (direction + 1) % 4;// Allow rotation with the use of modulus
 		}
@@ -142,12 +155,6 @@ public class MirrorBoxObject extends GameObject {
 		}
 	}
 
-	public boolean collidesWithSwing(Swing swing) {
-		return (swing.pos.x + swing.width / 2 > pos.x - width / 2 && swing.pos.x - swing.width / 2 < pos.x + width / 2)
-				&& (swing.pos.y + swing.height / 2 > pos.y - height / 2
-						&& swing.pos.y - swing.height / 2 < pos.y + height / 2);
-	}
-
 	public boolean collidesWithProjectile(ProjectileObject swing) {
 		return (swing.pos.x + swing.width / 2 > pos.x - width / 2 && swing.pos.x - swing.width / 2 < pos.x + width / 2)
 				&& (swing.pos.y + swing.height / 2 > pos.y - height / 2
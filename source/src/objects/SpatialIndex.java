@@ -0,0 +1,328 @@
+package objects;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import processing.data.IntList;
+
+/**
+ * <h1>SpatialIndex Class</h1>
+ * <p>
+ * Uniform grid over the bounds of a set of objects, for broadphase, culling
+ * and waking. Each object's centre, half extents and collision category are
+ * copied into primitive arrays under an index id, and every
+ * {@link #cellSize}-wide cell lists the ids of the objects overlapping it, so
+ * a query only looks at the objects near the region asked about.
+ * </p>
+ * <p>
+ * Waking is by cell: {@link #wake} marks the cells around a point and an
+ * object is awake if any of its cells is marked, so with cells about as wide
+ * as the wake radius each wake touches a handful of cells whatever the number
+ * of objects.
+ * </p>
+ * <p>
+ * The objects own their state; the index only mirrors their bounds and is
+ * kept up to date incrementally: {@link #add} and
+ * {@link #remove} when an object enters or leaves the level,
+ * {@link #move} after its position or size changes. Each object
+ * holds its {@link EditableObject#indexId id} while it is in the index.
+ * </p>
+ */
+public class SpatialIndex<T extends EditableObject> {
+
+	public float[] x;
+	public float[] y;
+	public float[] halfWidth;
+	public float[] halfHeight;
+	public int[] category;
+
+	public final int cellSize;
+
+	private EditableObject[] objects;
+	private int[] cellMinX, cellMinY, cellMaxX, cellMaxY; // cells the object is listed in
+	private int[] visible; // cull stamp when last in view
+	private int[] queried; // query stamp, so objects spanning cells are reported once
+	private int cullStamp, wakeStamp, queryStamp;
+
+	private static class Cell {
+		final IntList ids = new IntList();
+		int awake; // wake stamp when last woken
+	}
+
+	private final HashMap<Long, Cell> cells = new HashMap<Long, Cell>();
+	private final IntList free = new IntList(); // ids released by remove
+	private int size; // ids in use or free
+	private int count; // objects in the index
+
+	public SpatialIndex(int capacity, int cellSize) {
+		this.cellSize = cellSize;
+		capacity = Math.max(capacity, 16);
+		x = new float[capacity];
+		y = new float[capacity];
+		halfWidth = new float[capacity];
+		halfHeight = new float[capacity];
+		category = new int[capacity];
+		objects = new EditableObject[capacity];
+		cellMinX = new int[capacity];
+		cellMinY = new int[capacity];
+		cellMaxX = new int[capacity];
+		cellMaxY = new int[capacity];
+		visible = new int[capacity];
+		queried = new int[capacity];
+	}
+
+	/**
+	 * Adds the object at its current position and size.
+	 */
+	public void add(T object) {
+		if (contains(object)) {
+			return;
+		}
+		int i;
+		if (free.size() > 0) {
+			i = free.remove(free.size() - 1);
+		} else {
+			if (size == x.length) {
+				grow(size * 2);
+			}
+			i = size++;
+		}
+		object.indexId = i;
+		objects[i] = object;
+		category[i] = object instanceof CollidableObject ? ((CollidableObject) object).category : -1;
+		queried[i] = 0;
+		store(i);
+		list(i);
+		count++;
+	}
+
+	/**
+	 * Refreshes the object's bounds after it moved or was resized.
+	 */
+	public void move(T object) {
+		if (!contains(object)) {
+			return;
+		}
+		int i = object.indexId;
+		int minX = cellMinX[i], minY = cellMinY[i], maxX = cellMaxX[i], maxY = cellMaxY[i];
+		store(i);
+		if (minX != cellMinX[i] || minY != cellMinY[i] || maxX != cellMaxX[i] || maxY != cellMaxY[i]) {
+			unlist(i, minX, minY, maxX, maxY);
+			list(i);
+		}
+	}
+
+	public void remove(T object) {
+		if (!contains(object)) {
+			return;
+		}
+		int i = object.indexId;
+		unlist(i, cellMinX[i], cellMinY[i], cellMaxX[i], cellMaxY[i]);
+		objects[i] = null;
+		object.indexId = -1;
+		free.append(i);
+		count--;
+	}
+
+	/**
+	 * Removes every object (e.g. when a level is loaded).
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			if (objects[i] != null) {
+				objects[i].indexId = -1;
+				objects[i] = null;
+			}
+		}
+		cells.clear();
+		free.clear();
+		size = 0;
+		count = 0;
+	}
+
+	/**
+	 * Collects the ids of objects whose bounds overlap the given box and whose
+	 * category is in the mask.
+	 *
+	 * @param out cleared, then filled with index ids.
+	 */
+	public void query(float minX, float minY, float maxX, float maxY, int mask, IntList out) {
+		out.clear();
+		queryStamp++;
+		for (int cy = cell(minY); cy <= cell(maxY); cy++) {
+			for (int cx = cell(minX); cx <= cell(maxX); cx++) {
+				Cell cell = cells.get(key(cx, cy));
+				if (cell == null) {
+					continue;
+				}
+				for (int k = 0; k < cell.ids.size(); k++) {
+					int i = cell.ids.get(k);
+					if (queried[i] != queryStamp && (category[i] & mask) != 0 && overlaps(i, minX, minY, maxX, maxY)) {
+						queried[i] = queryStamp;
+						out.append(i);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks which objects overlap the view box; see {@link #isVisible(EditableObject)}.
+	 */
+	public void cull(float minX, float minY, float maxX, float maxY) {
+		cullStamp++;
+		for (int cy = cell(minY); cy <= cell(maxY); cy++) {
+			for (int cx = cell(minX); cx <= cell(maxX); cx++) {
+				Cell cell = cells.get(key(cx, cy));
+				if (cell == null) {
+					continue;
+				}
+				for (int k = 0; k < cell.ids.size(); k++) {
+					int i = cell.ids.get(k);
+					if (overlaps(i, minX, minY, maxX, maxY)) {
+						visible[i] = cullStamp;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return whether the object was in view at the last {@link #cull}. Objects
+	 *         added or moved since count as visible; objects not in the index
+	 *         always do.
+	 */
+	public boolean isVisible(EditableObject object) {
+		return !contains(object) || visible[object.indexId] == cullStamp;
+	}
+
+	/**
+	 * Starts a new round of {@link #wake}: every object sleeps until woken again.
+	 */
+	public void sleepAll() {
+		wakeStamp++;
+	}
+
+	/**
+	 * Marks the cells within the radius of (x, y) as awake until the next
+	 * {@link #sleepAll()}: objects there (and possibly up to a cell further)
+	 * count as awake; see {@link #isAwake(EditableObject)}.
+	 */
+	public void wake(float x, float y, float radius) {
+		for (int cy = cell(y - radius); cy <= cell(y + radius); cy++) {
+			for (int cx = cell(x - radius); cx <= cell(x + radius); cx++) {
+				Cell cell = cells.get(key(cx, cy));
+				if (cell != null) {
+					cell.awake = wakeStamp;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return whether one of the object's cells was woken since the last
+	 *         {@link #sleepAll()}. Objects not in the index count as awake.
+	 */
+	public boolean isAwake(EditableObject object) {
+		if (!contains(object)) {
+			return true;
+		}
+		int i = object.indexId;
+		for (int cy = cellMinY[i]; cy <= cellMaxY[i]; cy++) {
+			for (int cx = cellMinX[i]; cx <= cellMaxX[i]; cx++) {
+				if (cells.get(key(cx, cy)).awake == wakeStamp) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int id) {
+		return (T) objects[id];
+	}
+
+	/**
+	 * @return number of objects in the index.
+	 */
+	public int size() {
+		return count;
+	}
+
+	private boolean contains(EditableObject object) {
+		int i = object.indexId;
+		return i >= 0 && i < size && objects[i] == object;
+	}
+
+	/**
+	 * Copies the bounds of object i from its object and works out its cells.
+	 */
+	private void store(int i) {
+		EditableObject object = objects[i];
+		x[i] = object.pos.x;
+		y[i] = object.pos.y;
+		halfWidth[i] = object.width / 2f;
+		halfHeight[i] = object.height / 2f;
+		cellMinX[i] = cell(x[i] - halfWidth[i]);
+		cellMinY[i] = cell(y[i] - halfHeight[i]);
+		cellMaxX[i] = cell(x[i] + halfWidth[i]);
+		cellMaxY[i] = cell(y[i] + halfHeight[i]);
+		visible[i] = cullStamp; // until the next cull
+	}
+
+	private void list(int i) {
+		for (int cy = cellMinY[i]; cy <= cellMaxY[i]; cy++) {
+			for (int cx = cellMinX[i]; cx <= cellMaxX[i]; cx++) {
+				Cell cell = cells.get(key(cx, cy));
+				if (cell == null) {
+					cell = new Cell();
+					cells.put(key(cx, cy), cell);
+				}
+				cell.ids.append(i);
+			}
+		}
+	}
+
+	private void unlist(int i, int minX, int minY, int maxX, int maxY) {
+		for (int cy = minY; cy <= maxY; cy++) {
+			for (int cx = minX; cx <= maxX; cx++) {
+				Cell cell = cells.get(key(cx, cy));
+				if (cell != null) {
+					cell.ids.removeValue(i);
+					if (cell.ids.size() == 0) {
+						cells.remove(key(cx, cy));
+					}
+				}
+			}
+		}
+	}
+
+	private boolean overlaps(int i, float minX, float minY, float maxX, float maxY) {
+		return x[i] + halfWidth[i] >= minX && x[i] - halfWidth[i] <= maxX && y[i] + halfHeight[i] >= minY
+				&& y[i] - halfHeight[i] <= maxY;
+	}
+
+	private int cell(float coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	private static long key(int cellX, int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+	}
+
+	private void grow(int capacity) {
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		halfWidth = Arrays.copyOf(halfWidth, capacity);
+		halfHeight = Arrays.copyOf(halfHeight, capacity);
+		category = Arrays.copyOf(category, capacity);
+		objects = Arrays.copyOf(objects, capacity);
+		cellMinX = Arrays.copyOf(cellMinX, capacity);
+		cellMinY = Arrays.copyOf(cellMinY, capacity);
+		cellMaxX = Arrays.copyOf(cellMaxX, capacity);
+		cellMaxY = Arrays.copyOf(cellMaxY, capacity);
+		visible = Arrays.copyOf(visible, capacity);
+		queried = Arrays.copyOf(queried, capacity);
+	}
+}
@@ -0,0 +1,382 @@
+package objects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import processing.core.PImage;
+import processing.data.IntList;
+import sidescroller.SideScroller;
+import sidescroller.Tileset;
+
+/**
+ * <h1>TileLayer Class</h1>
+ * <p>
+ * Dense storage for one layer of static tiles (collision or background). The
+ * world is split into square chunks of {@link #CHUNK} x {@link #CHUNK} cells;
+ * each cell holds the tileset handle of the tile centred on it and its index in
+ * the level, so a tile costs six bytes instead of a full {@link EditableObject}.
+ * </p>
+ * <p>
+ * The editor works on one object per tile. Entering PLAY {@link #pack() packs}
+ * the layer's object list: tiles move into the chunks and their objects are
+ * dropped, leaving in the list only what could not be packed (off-grid tiles,
+ * tiles sharing a cell, child collisions). Leaving PLAY {@link #unpack()
+ * unpacks} them back into objects, in their original order. While packed,
+ * {@link #query} and {@link #display} cover both the tiles and the objects kept,
+ * in level order.
+ * </p>
+ * <p>
+ * Cells are {@link #CELL} world units wide (the editor snap size).
+ * </p>
+ */
+public class TileLayer<T extends EditableObject> {
+
+	public static final int CELL = 32;
+	private static final int CHUNK = 32; // cells per chunk side
+	private static final int CHUNK_SIZE = CELL * CHUNK; // chunk size in world units
+	private static final short EMPTY = 0;
+	private static final int KEPT = 1 << 30; // marks a kept object in a gathered reference
+
+	private static class Chunk {
+		final short[] tiles = new short[CHUNK * CHUNK]; // tile handle + 1, 0 if empty
+		final int[] order = new int[CHUNK * CHUNK]; // index of the tile in the level
+	}
+
+	private final ArrayList<T> objects;
+	private final Supplier<T> factory;
+	private final int debugColor;
+
+	private final HashMap<Long, Chunk> chunks = new HashMap<Long, Chunk>();
+	private int size;
+	private int reach; // largest tile half-extent, in cells
+
+	// While packed: objects left in the list, and their index in the level
+	private boolean packed;
+	private int total;
+	private final ArrayList<T> kept = new ArrayList<T>();
+	private final IntList keptOrder = new IntList();
+
+	// Scratch for gathering in level order (reused)
+	private long[] gathered = new long[256]; // (order << 32) | reference
+	private int[] gatheredTile = new int[256];
+	private int[] gatheredX = new int[256];
+	private int[] gatheredY = new int[256];
+	private final ArrayList<T> views = new ArrayList<T>();
+
+	/**
+	 * @param objects    the level's object list for this layer.
+	 * @param factory    creates an (empty) object for a tile, see
+	 *                   {@link EditableObject#setGraphic(int)}.
+	 * @param debugColor outline drawn around tiles in debug mode.
+	 */
+	public TileLayer(ArrayList<T> objects, Supplier<T> factory, int debugColor) {
+		this.objects = objects;
+		this.factory = factory;
+		this.debugColor = debugColor;
+	}
+
+	/**
+	 * Moves the packable tiles of the object list into the layer.
+	 */
+	public void pack() {
+		if (packed) {
+			return;
+		}
+		clear();
+		for (int i = 0; i < objects.size(); i++) {
+			T o = objects.get(i);
+			if (o.child || !set(o.pos.x, o.pos.y, o.tile, i)) {
+				kept.add(o);
+				keptOrder.append(i);
+			}
+		}
+		total = objects.size();
+		objects.clear();
+		objects.addAll(kept);
+		packed = true;
+	}
+
+	/**
+	 * Recreates the objects of the packed tiles, restoring the list to its order
+	 * before {@link #pack()}. Objects added to the list meanwhile go last.
+	 */
+	public void unpack() {
+		if (!packed) {
+			return;
+		}
+		ArrayList<T> ordered = new ArrayList<T>(Collections.nCopies(total, (T) null));
+		for (Map.Entry<Long, Chunk> entry : chunks.entrySet()) {
+			int chunkX = (int) (entry.getKey() >> 32);
+			int chunkY = (int) (long) entry.getKey();
+			Chunk chunk = entry.getValue();
+			for (int i = 0; i < chunk.tiles.length; i++) {
+				if (chunk.tiles[i] != EMPTY) {
+					T o = factory.get();
+					o.setGraphic(chunk.tiles[i] - 1);
+					o.pos.set((chunkX * CHUNK + i % CHUNK) * CELL, (chunkY * CHUNK + i / CHUNK) * CELL);
+					ordered.set(chunk.order[i], o);
+				}
+			}
+		}
+
+		Set<T> listed = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+		listed.addAll(objects);
+		Set<T> keptSet = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+		for (int k = 0; k < kept.size(); k++) {
+			keptSet.add(kept.get(k));
+			if (listed.contains(kept.get(k))) { // else removed while packed
+				ordered.set(keptOrder.get(k), kept.get(k));
+			}
+		}
+		ArrayList<T> added = new ArrayList<T>();
+		for (T o : objects) {
+			if (!keptSet.contains(o)) {
+				added.add(o);
+			}
+		}
+
+		objects.clear();
+		for (T o : ordered) {
+			if (o != null) {
+				objects.add(o);
+			}
+		}
+		objects.addAll(added);
+		clear();
+	}
+
+	public boolean isPacked() {
+		return packed;
+	}
+
+	/**
+	 * @return tile handle at the given cell, or -1 if empty.
+	 */
+	public int get(int cellX, int cellY) {
+		Chunk chunk = getChunk(cellX, cellY, false);
+		return chunk == null ? -1 : chunk.tiles[index(cellX, cellY)] - 1;
+	}
+
+	/**
+	 * @return number of packed tiles.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Is the world point inside the footprint of any packed tile? Only the cells
+	 * near the point are checked, and the layer is only read.
+	 */
+	public boolean contains(float x, float y) {
+		int cellX = Math.round(x / CELL);
+		int cellY = Math.round(y / CELL);
+		for (int cy = cellY - reach; cy <= cellY + reach; cy++) {
+			for (int cx = cellX - reach; cx <= cellX + reach; cx++) {
+				int tile = get(cx, cy);
+				if (tile >= 0) {
+					PImage image = Tileset.getTile(tile);
+					if (Math.abs(x - cx * CELL) < image.width / 2 && Math.abs(y - cy * CELL) < image.height / 2) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Collects, in level order, the objects whose bounds overlap the given box.
+	 * While packed, tiles are returned as views: shared objects that are only
+	 * valid until the next query and must not be kept or edited.
+	 *
+	 * @param out cleared, then filled.
+	 */
+	public void query(float minX, float minY, float maxX, float maxY, ArrayList<T> out) {
+		out.clear();
+		if (!packed) {
+			for (int i = 0; i < objects.size(); i++) {
+				if (overlaps(objects.get(i), minX, minY, maxX, maxY)) {
+					out.add(objects.get(i));
+				}
+			}
+			return;
+		}
+
+		int n = 0;
+		int cellMinX = Math.round(minX / CELL) - reach, cellMaxX = Math.round(maxX / CELL) + reach;
+		int cellMinY = Math.round(minY / CELL) - reach, cellMaxY = Math.round(maxY / CELL) + reach;
+		for (int cy = cellMinY; cy <= cellMaxY; cy++) {
+			for (int cx = cellMinX; cx <= cellMaxX; cx++) {
+				Chunk chunk = getChunk(cx, cy, false);
+				int i = index(cx, cy);
+				if (chunk != null && chunk.tiles[i] != EMPTY) {
+					int tile = chunk.tiles[i] - 1;
+					PImage image = Tileset.getTile(tile);
+					if (cx * CELL + image.width / 2 > minX && cx * CELL - image.width / 2 < maxX
+							&& cy * CELL + image.height / 2 > minY && cy * CELL - image.height / 2 < maxY) {
+						n = gatherTile(n, chunk.order[i], tile, cx * CELL, cy * CELL);
+					}
+				}
+			}
+		}
+		n = gatherKept(n, minX, minY, maxX, maxY);
+		Arrays.sort(gathered, 0, n);
+
+		int viewCount = 0;
+		for (int k = 0; k < n; k++) {
+			int ref = (int) gathered[k];
+			if (ref >= KEPT) {
+				out.add(kept.get(ref - KEPT));
+			} else {
+				if (viewCount == views.size()) {
+					views.add(factory.get());
+				}
+				T view = views.get(viewCount++);
+				view.setGraphic(gatheredTile[ref]);
+				view.pos.set(gatheredX[ref], gatheredY[ref]);
+				out.add(view);
+			}
+		}
+	}
+
+	/**
+	 * Draws, in level order, the packed tiles of every chunk overlapping the given
+	 * world region and the kept objects.
+	 */
+	public void display(SideScroller applet, float minX, float minY, float maxX, float maxY) {
+		int n = 0;
+		float margin = (reach + 1) * CELL;
+		for (Map.Entry<Long, Chunk> entry : chunks.entrySet()) {
+			int chunkX = (int) (entry.getKey() >> 32);
+			int chunkY = (int) (long) entry.getKey();
+			float x0 = chunkX * CHUNK_SIZE - CELL / 2;
+			float y0 = chunkY * CHUNK_SIZE - CELL / 2;
+			if (x0 > maxX + margin || y0 > maxY + margin || x0 + CHUNK_SIZE < minX - margin
+					|| y0 + CHUNK_SIZE < minY - margin) {
+				continue;
+			}
+			Chunk chunk = entry.getValue();
+			for (int i = 0; i < chunk.tiles.length; i++) {
+				int x = (chunkX * CHUNK + i % CHUNK) * CELL;
+				int y = (chunkY * CHUNK + i / CHUNK) * CELL;
+				if (chunk.tiles[i] != EMPTY && x > minX - margin && x < maxX + margin && y > minY - margin
+						&& y < maxY + margin) {
+					n = gatherTile(n, chunk.order[i], chunk.tiles[i] - 1, x, y);
+				}
+			}
+		}
+		n = gatherKept(n, minX - margin, minY - margin, maxX + margin, maxY + margin);
+		Arrays.sort(gathered, 0, n);
+
+		for (int k = 0; k < n; k++) {
+			int ref = (int) gathered[k];
+			if (ref >= KEPT) {
+				kept.get(ref - KEPT).display();
+				continue;
+			}
+			PImage image = Tileset.getTile(gatheredTile[ref]);
+			int x = gatheredX[ref];
+			int y = gatheredY[ref];
+			applet.image(image, x + (image.width / 4 % 2 != 0 ? 2 : 0), y + (image.height / 4 % 2 != 0 ? 2 : 0));
+
+			if (SideScroller.DEBUG) {
+				applet.noStroke();
+				applet.fill(255);
+				applet.ellipse(x, y, 5, 5);
+				applet.noFill();
+				applet.stroke(debugColor);
+				applet.rect(x, y, image.width, image.height);
+			}
+		}
+	}
+
+	private boolean set(float x, float y, int tile, int order) {
+		if (tile < 0 || x % CELL != 0 || y % CELL != 0) {
+			return false;
+		}
+		int cellX = (int) x / CELL;
+		int cellY = (int) y / CELL;
+		Chunk chunk = getChunk(cellX, cellY, true);
+		int i = index(cellX, cellY);
+		if (chunk.tiles[i] != EMPTY) {
+			return false;
+		}
+		chunk.tiles[i] = (short) (tile + 1);
+		chunk.order[i] = order;
+		size++;
+
+		PImage image = Tileset.getTile(tile);
+		reach = Math.max(reach, (Math.max(image.width, image.height) / 2 + CELL - 1) / CELL);
+		return true;
+	}
+
+	/**
+	 * Drops the packed tiles without restoring them (e.g. when a level is loaded).
+	 */
+	public void clear() {
+		chunks.clear();
+		size = 0;
+		reach = 0;
+		kept.clear();
+		keptOrder.clear();
+		total = 0;
+		packed = false;
+	}
+
+	private int gatherTile(int n, int order, int tile, int x, int y) {
+		if (n == gathered.length) {
+			grow();
+		}
+		gatheredTile[n] = tile;
+		gatheredX[n] = x;
+		gatheredY[n] = y;
+		gathered[n] = ((long) order << 32) | n;
+		return n + 1;
+	}
+
+	private int gatherKept(int n, float minX, float minY, float maxX, float maxY) {
+		for (int k = 0; k < kept.size(); k++) {
+			if (overlaps(kept.get(k), minX, minY, maxX, maxY)) {
+				if (n == gathered.length) {
+					grow();
+				}
+				gathered[n++] = ((long) keptOrder.get(k) << 32) | (KEPT + k);
+			}
+		}
+		return n;
+	}
+
+	private void grow() {
+		int capacity = gathered.length * 2;
+		gathered = Arrays.copyOf(gathered, capacity);
+		gatheredTile = Arrays.copyOf(gatheredTile, capacity);
+		gatheredX = Arrays.copyOf(gatheredX, capacity);
+		gatheredY = Arrays.copyOf(gatheredY, capacity);
+	}
+
+	private static boolean overlaps(EditableObject o, float minX, float minY, float maxX, float maxY) {
+		return o.pos.x + o.width / 2 > minX && o.pos.x - o.width / 2 < maxX && o.pos.y + o.height / 2 > minY
+				&& o.pos.y - o.height / 2 < maxY;
+	}
+
+	private Chunk getChunk(int cellX, int cellY, boolean create) {
+		long key = ((long) Math.floorDiv(cellX, CHUNK) << 32) | (Math.floorDiv(cellY, CHUNK) & 0xFFFFFFFFL);
+		Chunk chunk = chunks.get(key);
+		if (chunk == null && create) {
+			chunk = new Chunk();
+			chunks.put(key, chunk);
+		}
+		return chunk;
+	}
+
+	private static int index(int cellX, int cellY) {
+		return Math.floorMod(cellY, CHUNK) * CHUNK + Math.floorMod(cellX, CHUNK);
+	}
+}
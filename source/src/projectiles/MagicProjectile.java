@@ -1,37 +1,69 @@
 package projectiles;
 
+import java.util.ArrayList;
+
 import objects.CollidableObject;
 import processing.core.PApplet;
-import processing.core.PVector;
+import processing.data.IntList;
 import sidescroller.SideScroller;
+import sidescroller.Tileset;
 
 public class MagicProjectile extends ProjectileObject {
 
+	private static final int ANIMATION_MOVE = Tileset.getAnimationId("MAGIC::MOVE");
+	private static final int ANIMATION_IDLE = Tileset.getAnimationId("MAGIC::IDLE");
+	public static final int CATEGORY = Tileset.getCategory("MAGIC");
+
 	final int FLYING_PROJECTILE_W = 22;
 	final int FLYING_PROJECTILE_H = 10;
 	final int SCALE = 4;
 	final int PROJECTILE_SPEED = 10;
 	final int PROJECTILE_IDLE_SIZE = 8;
 
-	public MagicProjectile(SideScroller a, int x, int y, int dir) {
+	private static final ArrayList<CollidableObject> nearby = new ArrayList<CollidableObject>(); // reused
+	private static final IntList touching = new IntList(); // reused
+
+	/**
+	 * Creates an unspawned projectile; see {@link #spawn(int, int, int)}.
+	 */
+	public MagicProjectile(SideScroller a) {
 		super(a);
 
 		id = "MAGIC";
-		pos = new PVector(x, y);
+		category = CATEGORY;
+		mask = Tileset.CATEGORY_SOLID;
+		speed = PROJECTILE_SPEED;
+	}
+
+	public MagicProjectile(SideScroller a, int x, int y, int dir) {
+		this(a);
+		spawn(x, y, dir);
+	}
+
+	/**
+	 * (Re)starts the projectile flying from the given position.
+	 */
+	public void spawn(int x, int y, int dir) {
+		pos.set(x, y);
 		direction = dir;
 
 		prevDirection = dir; // Used for tracking the prevDirection of the projectile
 		// Setup Animation
-		setAnimation("MAGIC::MOVE", 4);
-		speed = PROJECTILE_SPEED;
+		setAnimation(ANIMATION_MOVE, 4);
+		animation.restart();
 		width = FLYING_PROJECTILE_W * SCALE;
 		height = FLYING_PROJECTILE_H * SCALE;
+		spawned();
 	}
 
 	public void setAnimation(String anim, int animRate) {
 		animation.changeAnimation(getAnimation(anim), true, animRate); // Setup Animation
 	}
 
+	public void setAnimation(int anim, int animRate) {
+		animation.changeAnimation(Tileset.getAnimation(anim), true, animRate);
+	}
+
 	public void display() {
 		switch (direction) {
 		case LEFT:
@@ -50,24 +82,45 @@ public class MagicProjectile extends ProjectileObject {
 		debugMode();
 	}
 
-	public void update() {
+	/**
+	 * Motion runs in the first phase, before any projectile collides.
+	 */
+	@Override
+	public void prepare() {
 
 		image = animation.animate();
 		if (!hit) {
 			moveProjectile();
-			destroyProjectile();
 		}
 	}
 
+	/**
+	 * Collision queries the shared collision layer and the game objects under the
+	 * projectile react to it, so it runs in the serial phase.
+	 */
+	@Override
+	public void update() {
+		if (!hit) {
+			destroyProjectile();
+		}
+
+		applet.gameIndex.query(pos.x - width / 2, pos.y - height / 2, pos.x + width / 2, pos.y + height / 2,
+				Tileset.CATEGORY_ALL, touching);
+		for (int i = 0; i < touching.size(); i++) {
+			applet.gameIndex.get(touching.get(i)).touch(this);
+		}
+	}
 
 	public void destroyProjectile() {
-		for (int i = 0; i < applet.collidableObjects.size(); i++) {
-			CollidableObject collision = applet.collidableObjects.get(i);
-			if (collides(collision) && !collision.flag.equals("TRANSPARENT_BULLET")) {
+		applet.collisionLayer.query(pos.x - width / 2, pos.y - height / 2, pos.x + width / 2, pos.y + height / 2,
+				nearby);
+		for (int i = 0; i < nearby.size(); i++) {
+			CollidableObject collision = nearby.get(i);
+			if ((mask & collision.category) != 0 && collides(collision)) {
 				hit = true;
 				setWidthHeight(PROJECTILE_IDLE_SIZE * SCALE, PROJECTILE_IDLE_SIZE * SCALE);
 				checkCollision(collision);
-				setAnimation("MAGIC::IDLE", 4);
+				setAnimation(ANIMATION_IDLE, 4);
 				// Override Animation
 			  image = animation.animate();
 			}
@@ -99,7 +152,7 @@ public class MagicProjectile extends ProjectileObject {
 		hit = true;
 		setWidthHeight(PROJECTILE_IDLE_SIZE * SCALE, PROJECTILE_IDLE_SIZE * SCALE);
 		checkCollision(collision);
-		setAnimation("MAGIC::IDLE", 4);
+		setAnimation(ANIMATION_IDLE, 4);
 		// Override Animation
 		image = animation.animate();
 	}
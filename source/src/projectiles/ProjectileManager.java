@@ -0,0 +1,176 @@
+package projectiles;
+
+import java.util.ArrayList;
+
+import processing.core.PApplet;
+
+/**
+ * <h1>ProjectileManager Class</h1>
+ * <p>
+ * Owns the live projectiles. Each frame {@link #update()} expires projectiles
+ * whose lifetime is up, updates the rest (prepare phase, then update), then
+ * removes everything despawned during the frame; {@link #display()} draws them
+ * in a separate pass. Both phases run on the calling thread: live projectiles
+ * are capped far below
+ * {@link sidescroller.ParallelUpdate#PARALLEL_THRESHOLD}, so only game objects
+ * take the parallel path.
+ * </p>
+ * <p>
+ * Lifetimes are kept on a timing wheel: a ring of buckets indexed by expiry
+ * tick, so expiring costs only the projectiles due this tick rather than a
+ * scan of all of them. Removal is deferred to the end of the update and is O(1)
+ * (swap with the last live projectile), so {@link #remove(ProjectileObject)} is
+ * safe to call from anywhere, including while the projectiles are being
+ * iterated.
+ * </p>
+ */
+public class ProjectileManager {
+
+	/**
+	 * Lifetime of projectiles added without one (10s at 60fps).
+	 */
+	public static final int DEFAULT_LIFETIME = 600;
+
+	private final ArrayList<ProjectileObject> live;
+	private final ArrayList<ProjectileObject> removed;
+	private final ArrayList<ArrayList<ProjectileObject>> wheel;
+	private int tick;
+
+	/**
+	 * @param capacity    expected number of live projectiles (lists are presized).
+	 * @param maxLifetime longest lifetime, in ticks, that can be scheduled.
+	 */
+	public ProjectileManager(int capacity, int maxLifetime) {
+		live = new ArrayList<ProjectileObject>(capacity);
+		removed = new ArrayList<ProjectileObject>(capacity);
+		wheel = new ArrayList<ArrayList<ProjectileObject>>(maxLifetime + 1);
+		for (int i = 0; i <= maxLifetime; i++) {
+			wheel.add(new ArrayList<ProjectileObject>());
+		}
+	}
+
+	public void add(ProjectileObject projectile) {
+		add(projectile, DEFAULT_LIFETIME);
+	}
+
+	/**
+	 * @param lifetime ticks until the projectile is despawned (at most the
+	 *                 manager's max lifetime).
+	 */
+	public void add(ProjectileObject projectile, int lifetime) {
+		projectile.slot = live.size();
+		projectile.removing = false;
+		projectile.expireTick = tick + Math.max(1, Math.min(lifetime, wheel.size() - 1));
+		live.add(projectile);
+		wheel.get(projectile.expireTick % wheel.size()).add(projectile);
+	}
+
+	/**
+	 * Despawns the projectile at the end of the current (or next) update.
+	 */
+	public void remove(ProjectileObject projectile) {
+		if (projectile.slot >= 0 && !projectile.removing) {
+			projectile.removing = true;
+			removed.add(projectile);
+		}
+	}
+
+	/**
+	 * Stores the projectiles' positions at the start of a simulation update, see
+	 * {@link #display(float)}.
+	 */
+	public void storePrevPos() {
+		for (int i = 0; i < live.size(); i++) {
+			live.get(i).prevPos.set(live.get(i).pos);
+		}
+	}
+
+	public void update() {
+		tick++;
+
+		// Expire
+		ArrayList<ProjectileObject> bucket = wheel.get(tick % wheel.size());
+		for (int i = 0; i < bucket.size(); i++) {
+			ProjectileObject projectile = bucket.get(i);
+			if (projectile.expireTick == tick) { // else removed early (stale entry)
+				remove(projectile);
+			}
+		}
+		bucket.clear();
+
+		for (int i = 0; i < live.size(); i++) {
+			ProjectileObject projectile = live.get(i);
+			if (!projectile.removing) {
+				projectile.prepare();
+			}
+		}
+		for (int i = 0; i < live.size(); i++) {
+			ProjectileObject projectile = live.get(i);
+			if (!projectile.removing) {
+				projectile.update();
+			}
+		}
+
+		flush();
+	}
+
+	public void display() {
+		display(1);
+	}
+
+	/**
+	 * Draws the projectiles interpolated between their positions at the start
+	 * and end of the last update.
+	 *
+	 * @param alpha fraction of a simulation update elapsed since the last one, see
+	 *              {@link sidescroller.SimulationClock#getAlpha()}.
+	 */
+	public void display(float alpha) {
+		for (int i = 0; i < live.size(); i++) {
+			ProjectileObject projectile = live.get(i);
+			float x = projectile.pos.x;
+			float y = projectile.pos.y;
+			projectile.pos.set(PApplet.lerp(projectile.prevPos.x, x, alpha),
+					PApplet.lerp(projectile.prevPos.y, y, alpha));
+			projectile.display();
+			projectile.pos.set(x, y);
+		}
+	}
+
+	/**
+	 * Despawns every projectile.
+	 */
+	public void clear() {
+		for (int i = 0; i < live.size(); i++) {
+			remove(live.get(i));
+		}
+		flush();
+		for (ArrayList<ProjectileObject> bucket : wheel) {
+			bucket.clear();
+		}
+	}
+
+	public int size() {
+		return live.size();
+	}
+
+	public ProjectileObject get(int i) {
+		return live.get(i);
+	}
+
+	private void flush() {
+		for (int i = 0; i < removed.size(); i++) {
+			ProjectileObject projectile = removed.get(i);
+			int slot = projectile.slot;
+			ProjectileObject last = live.remove(live.size() - 1);
+			if (last != projectile) {
+				live.set(slot, last);
+				last.slot = slot;
+			}
+			projectile.slot = -1;
+			projectile.expireTick = -1;
+			projectile.despawn();
+		}
+		removed.clear();
+	}
+}
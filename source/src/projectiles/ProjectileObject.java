@@ -6,6 +6,7 @@ import components.AnimationComponent;
 import objects.CollidableObject;
 import processing.core.PImage;
 import processing.core.PVector;
+import sidescroller.EventBus;
 import sidescroller.PClass;
 import sidescroller.SideScroller;
 import sidescroller.Tileset;
@@ -15,6 +16,7 @@ public class ProjectileObject extends PClass {
 	public AnimationComponent animation;
 
 	public PVector pos;
+	public PVector prevPos; // pos at the start of the last simulation update
 
 	public PImage image;
 
@@ -32,17 +34,67 @@ public class ProjectileObject extends PClass {
 
 	public boolean hit;
 
+	/**
+	 * Collision filter bits, see {@link Tileset}.
+	 */
+	public int category;
+	public int mask = Tileset.CATEGORY_ALL;
+
+	// Pooling (see ProjectilePool)
+	ProjectilePool<?> pool;
+	boolean live;
+
+	// Bookkeeping for ProjectileManager
+	int slot = -1;
+	int expireTick = -1;
+	boolean removing;
+
 	public ProjectileObject(SideScroller a) {
 		super(a);
 
 		id = "";
-		spawnTime = applet.frameCount;
+		spawnTime = applet.clock.getTick();
 		animation = new AnimationComponent();
 		pos = new PVector(0, 0);
+		prevPos = new PVector(0, 0);
+	}
+
+	/**
+	 * Resets the state common to all projectiles and posts the spawn event;
+	 * subclasses call this once they are (re)spawned.
+	 */
+	protected void spawned() {
+		spawnTime = applet.clock.getTick();
+		hit = false;
+		prevPos.set(pos);
+		applet.events.post(EventBus.Type.SPAWN, this, null, pos.x, pos.y);
+	}
+
+	/**
+	 * Returns the projectile to its pool (if any). The caller must have removed
+	 * it from any live list; it must not be used afterwards.
+	 */
+	public void despawn() {
+		if (pool != null && live) {
+			applet.events.post(EventBus.Type.DESPAWN, this, null, pos.x, pos.y);
+			live = false;
+			pool.recycle(this);
+		}
 	}
 
 	public void display() {
 	}
+
+	/**
+	 * First update phase, run for every projectile before any is updated (e.g.
+	 * motion and animation).
+	 */
+	public void prepare() {
+	}
+
+	/**
+	 * Second update phase, run serially after every projectile is prepared.
+	 */
 	public void update() {
 	}
 
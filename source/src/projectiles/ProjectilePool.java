@@ -0,0 +1,66 @@
+package projectiles;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * <h1>ProjectilePool Class</h1>
+ * <p>
+ * Fixed-capacity pool of one projectile type. Projectiles are created on
+ * demand up to the capacity and then reused: {@link #obtain()} hands out a free
+ * one, and {@link ProjectileObject#despawn()} returns it. Once every projectile
+ * is live, obtain() returns null and the spawn is skipped.
+ * </p>
+ */
+public class ProjectilePool<T extends ProjectileObject> {
+
+	private final Supplier<T> factory;
+	private final ArrayList<T> free;
+	private final int capacity;
+	private int created;
+
+	/**
+	 * @param capacity most projectiles of this type alive at once.
+	 * @param factory  creates a new (unspawned) projectile.
+	 */
+	public ProjectilePool(int capacity, Supplier<T> factory) {
+		this.capacity = capacity;
+		this.factory = factory;
+		free = new ArrayList<T>(capacity);
+	}
+
+	/**
+	 * @return a free projectile, to be spawned by the caller, or null if all are
+	 *         in use.
+	 */
+	public T obtain() {
+		T projectile;
+		if (!free.isEmpty()) {
+			projectile = free.remove(free.size() - 1);
+		} else if (created < capacity) {
+			projectile = factory.get();
+			created++;
+		} else {
+			return null;
+		}
+		projectile.pool = this;
+		projectile.live = true;
+		return projectile;
+	}
+
+	@SuppressWarnings("unchecked")
+	void recycle(ProjectileObject projectile) {
+		free.add((T) projectile);
+	}
+
+	/**
+	 * @return number of projectiles currently in use.
+	 */
+	public int getLive() {
+		return created - free.size();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+}
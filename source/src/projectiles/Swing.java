@@ -1,54 +1,72 @@
 package projectiles;
 
-import components.AnimationComponent;
-import processing.core.PVector;
+import processing.data.IntList;
+import sidescroller.EventBus;
 import sidescroller.SideScroller;
 import sidescroller.Tileset;
 
 public class Swing extends ProjectileObject { // PClass
 
-	private AnimationComponent animation;
+	private static final int ANIMATION = Tileset.getAnimationId("Swing");
 
+	/**
+	 * Set by the first object that handles this swing's hit.
+	 */
 	public boolean activated;
 
-	public Swing(SideScroller a, int x, int y, int dir) {
+	private final IntList touching = new IntList(); // game object ids, reused
+
+	/**
+	 * Creates an unspawned swing; see {@link #spawn(int, int, int)}.
+	 */
+	public Swing(SideScroller a) {
 		super(a);
-		animation = new AnimationComponent();
 
+		width = 28 * 4;
+		height = 9 * 4;
+
+		// Setup Animation
+		animation.changeAnimation(Tileset.getAnimation(ANIMATION), false, 4);
+	}
+
+	/**
+	 * (Re)starts the swing beside the given position.
+	 */
+	public void spawn(int x, int y, int dir) {
 		direction = dir;
+		activated = false;
 
+		pos.set(x, y);
 		switch (direction) {
 			case LEFT :
-				pos = new PVector(x - 60, y);
+				pos.x -= 60;
 				break;
 			case RIGHT :
-				pos = new PVector(x + 60, y);
+				pos.x += 60;
 				break;
 		}
 
-		width = 28 * 4;
-		height = 9 * 4;
-
-		// Setup Animation
-		animation.changeAnimation(Tileset.getAnimation("Swing"), false, 4);
+		animation.restart();
+		image = null;
+		spawned();
 	}
 
 	@Override
 	public void display() {
-		try {
-			switch (direction) {
-				case LEFT :
-					applet.pushMatrix();
-					applet.translate(pos.x, pos.y);
-					applet.scale(-1, 1);
-					applet.image(image, 0, 0);
-					applet.popMatrix();
-					break;
-				case RIGHT :
-					applet.image(image, pos.x, pos.y);
-					break;
-			}
-		} catch (Exception e) {
+		if (image == null) {
+			return; // not yet updated
+		}
+		switch (direction) {
+			case LEFT :
+				applet.pushMatrix();
+				applet.translate(pos.x, pos.y);
+				applet.scale(-1, 1);
+				applet.image(image, 0, 0);
+				applet.popMatrix();
+				break;
+			case RIGHT :
+				applet.image(image, pos.x, pos.y);
+				break;
 		}
 	}
 
@@ -56,8 +74,13 @@ public class Swing extends ProjectileObject { // PClass
 	public void update() {
 		image = animation.animate();
 
-		if (animation.ended) {
-			applet.player.swings.remove(this);
+		// Hit the objects under the swing (each handles the hit at most once)
+		if (!activated) {
+			applet.gameIndex.query(pos.x - width / 2, pos.y - height / 2, pos.x + width / 2, pos.y + height / 2,
+					Tileset.CATEGORY_ALL, touching);
+			for (int i = 0; i < touching.size(); i++) {
+				applet.events.post(EventBus.Type.HIT, this, applet.gameIndex.get(touching.get(i)), pos.x, pos.y);
+			}
 		}
 	}
 }
@@ -1,15 +1,19 @@
 package scene;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 
 import objects.EditorItem;
+import objects.BackgroundObject;
 import objects.CollidableObject;
 import objects.EditableObject;
+import objects.GameObject;
 import processing.core.*;
 import processing.event.MouseEvent;
-import projectiles.ProjectileObject;
 import scene.components.WorldViewportEditor;
+import sidescroller.EventBus;
+import sidescroller.LevelJournal;
+import sidescroller.Options;
+import sidescroller.ParallelUpdate;
 import sidescroller.SideScroller;
 import sidescroller.Tileset;
 import sidescroller.Tileset.tileType;
@@ -53,6 +57,9 @@ public class SceneMapEditor extends PScene {
 	// Editor Viewport
 	public WorldViewportEditor worldViewportEditor;
 
+	// Autosave
+	public LevelJournal journal;
+
 	// Scroll Bar
 	private ScrollBarVertical scrollBar;
 
@@ -62,7 +69,7 @@ public class SceneMapEditor extends PScene {
 
 	public Tools tool;
 
-	private ArrayList<String> inventory;
+	private ArrayList<Integer> inventory; // tile handles
 
 //	public boolean focusedOnObject; // mutex
 
@@ -70,23 +77,39 @@ public class SceneMapEditor extends PScene {
 
 	public boolean edit;
 
+	private boolean playing; // simulated a PLAY tick since entering PLAY
+
+	// Scratch for drawing objects at their interpolated position
+	private final PVector simPos = new PVector();
+	private final PVector renderPos = new PVector();
+
+	// World bounds of the view, with a margin for camera rotation
+	private float viewMinX, viewMinY, viewMaxX, viewMaxY;
+
 	private int scroll_inventory;
 
 	public SceneMapEditor(SideScroller a) {
 		super(a);
+
+		// Objects hit while asleep wake up to handle it
+		applet.events.subscribe(EventBus.Type.HIT, event -> {
+			if (event.target instanceof GameObject) {
+				((GameObject) event.target).wake();
+			}
+		});
 	}
 
 	@Override
 	public void setup() {
 
 		// Create Inventory
-		inventory = new ArrayList<String>();
-		inventory.add("WEED_WALK_MIDDLE:0");
-		inventory.add("WEED_WALK_MIDDLE:1");
-		inventory.add("WEED_WALK_MIDDLE:2");
-		inventory.add("WEED_WALK_MIDDLE:3");
-		inventory.add("WEED_WALK_MIDDLE:4");
-		inventory.add("WEED_WALK_MIDDLE:5");
+		inventory = new ArrayList<Integer>();
+		inventory.add(Tileset.getTileId("WEED_WALK_MIDDLE:0"));
+		inventory.add(Tileset.getTileId("WEED_WALK_MIDDLE:1"));
+		inventory.add(Tileset.getTileId("WEED_WALK_MIDDLE:2"));
+		inventory.add(Tileset.getTileId("WEED_WALK_MIDDLE:3"));
+		inventory.add(Tileset.getTileId("WEED_WALK_MIDDLE:4"));
+		inventory.add(Tileset.getTileId("WEED_WALK_MIDDLE:5"));
 
 		// Init Editor Components
 		editorItem = new EditorItem(applet);
@@ -128,6 +151,9 @@ public class SceneMapEditor extends PScene {
 
 		util.loadLevel(SideScroller.LEVEL); // TODO change level
 
+		journal = new LevelJournal(applet);
+		journal.open(); // recover unsaved changes
+
 		windowTabs = new Tab(applet, tabTexts, 3);
 	}
 
@@ -138,6 +164,8 @@ public class SceneMapEditor extends PScene {
 	public void draw() {
 		background(29, 33, 45);
 
+		journal.update();
+
 		applet.noStroke();
 		applet.fill(29, 33, 45);
 
@@ -148,32 +176,35 @@ public class SceneMapEditor extends PScene {
 			}
 		}
 
-		// View Background Objects
-		for (int i = 0; i < applet.backgroundObjects.size(); i++) {
-			if (tool == Tools.MODIFY) {
-				applet.backgroundObjects.get(i).updateEdit();
-			}
+		updateView(); // before the layers are culled against it
 
-			applet.backgroundObjects.get(i).display();
-
-			if (applet.backgroundObjects.get(i).focus && applet.keyPress(8) && applet.keyPressEvent) {
-				applet.backgroundObjects.remove(i);
-				applet.keyPressEvent = false;
-			}
+		if (tool == Tools.PLAY) {
+			displayLayers();
+		} else {
+			applet.backgroundLayer.unpack(); // back to editable objects
+			applet.collisionLayer.unpack();
+			displayEditableTiles();
 		}
 
-		// View Collidable objects
-		for (int i = 0; i < applet.collidableObjects.size(); i++) {
-			if (tool == Tools.MODIFY) {
-				applet.collidableObjects.get(i).updateEdit();
+		// Simulate (zero or more fixed updates of one or more ticks, see SimulationClock)
+		for (int updates = applet.clock.advance(applet.millis()); updates > 0; updates--) {
+			storePrevPositions();
+			for (int ticks = applet.clock.getTicksPerUpdate(); ticks > 0; ticks--) {
+				applet.clock.tick();
+				applet.beginTick();
+				simulate();
+				applet.endTick();
 			}
+		}
 
-			applet.collidableObjects.get(i).display();
+		applet.gameIndex.cull(viewMinX, viewMinY, viewMaxX, viewMaxY);
 
-			if (applet.collidableObjects.get(i).focus && applet.keyPress(8) && applet.keyPressEvent) {
-				applet.collidableObjects.remove(i);
-				applet.keyPressEvent = false;
-			}
+		// Draw moving things between their last two updates (edits show as they are)
+		float alpha = applet.clock.getAlpha();
+		float objectAlpha = tool == Tools.PLAY ? alpha : 1;
+		if (tool != Tools.PLAY) {
+			applet.player.storePrevPos(); // camera follows the interpolated player
+			applet.gameObjects.forEach(o -> o.storePrevPos());
 		}
 
 		// View Game Objects (player-interactable objects)
@@ -182,42 +213,36 @@ public class SceneMapEditor extends PScene {
 				applet.gameObjects.get(i).updateEdit();
 			}
 
-			if (tool == Tools.PLAY) {
-				applet.gameObjects.get(i).update();
-			}
-
-			applet.gameObjects.get(i).display();
-
-			if (SideScroller.DEBUG) {
-				applet.strokeWeight(2);
-				applet.noFill();
-				applet.stroke(255, 190, 200);
-				applet.rect(applet.gameObjects.get(i).pos.x, applet.gameObjects.get(i).pos.y,
-						applet.gameObjects.get(i).width, applet.gameObjects.get(i).height);
-				applet.noStroke();
-				applet.fill(255);
-				applet.ellipse(applet.gameObjects.get(i).pos.x, applet.gameObjects.get(i).pos.y, 5, 5);
-				applet.noFill();
+			if (applet.gameIndex.isVisible(applet.gameObjects.get(i))) {
+				simPos.set(applet.gameObjects.get(i).pos);
+				applet.gameObjects.get(i).pos.set(applet.gameObjects.get(i).getRenderPos(objectAlpha, renderPos));
+				applet.gameObjects.get(i).display();
+
+				if (SideScroller.DEBUG) {
+					applet.strokeWeight(2);
+					applet.noFill();
+					applet.stroke(255, 190, 200);
+					applet.rect(applet.gameObjects.get(i).pos.x, applet.gameObjects.get(i).pos.y,
+							applet.gameObjects.get(i).width, applet.gameObjects.get(i).height);
+					applet.noStroke();
+					applet.fill(255);
+					applet.ellipse(applet.gameObjects.get(i).pos.x, applet.gameObjects.get(i).pos.y, 5, 5);
+					applet.noFill();
+				}
+				applet.gameObjects.get(i).pos.set(simPos);
 			}
 
 			// Delete
 			if (applet.gameObjects.get(i).focus && applet.keyPress(8) && applet.keyPressEvent) {
+				journal.remove(applet.gameObjects.get(i));
+				applet.gameIndex.remove(applet.gameObjects.get(i));
 				applet.gameObjects.remove(i);
 				applet.keyPressEvent = false;
 			}
 		}
 
-		// View Projectiles
-		Iterator<ProjectileObject> i = applet.projectileObjects.iterator();
-		while (i.hasNext()) {
-			ProjectileObject o = i.next();
-			if (applet.frameCount - o.spawnTime > 600) {
-				i.remove(); // kill projectile after 10s
-			} else {
-				o.update();
-				o.display();
-			}
-		}
+		// View Projectiles (despawned after 10s)
+		applet.projectileObjects.display(alpha);
 
 		switch (tool) {
 		case MODIFY:
@@ -229,8 +254,6 @@ public class SceneMapEditor extends PScene {
 			applet.gameObjects.forEach(o -> o.displayEdit());
 			break;
 		case PLAY:
-			applet.player.update();
-			break;
 		case MOVE:
 		case INVENTORY:
 		case SAVE:
@@ -240,13 +263,148 @@ public class SceneMapEditor extends PScene {
 		default:
 			break;
 		}
+		simPos.set(applet.player.pos);
+		applet.player.pos.set(applet.player.getRenderPos(objectAlpha, renderPos));
 		applet.player.display();
+		applet.player.pos.set(simPos);
 
 		// View Viewport Editor
 //		worldViewportEditor.updateEditor(); // TODO
 //		worldViewportEditor.displayEditor(); // TODO
 	}
 
+	/**
+	 * Stores where moving things are at the start of a simulation update, to draw
+	 * them interpolated from there; see
+	 * {@link sidescroller.SimulationClock#getAlpha()}.
+	 */
+	private void storePrevPositions() {
+		if (tool == Tools.PLAY) {
+			applet.player.storePrevPos();
+			applet.gameObjects.forEach(o -> o.storePrevPos());
+		}
+		applet.projectileObjects.storePrevPos();
+	}
+
+	/**
+	 * Advances the world by one simulation tick: game objects and the player
+	 * (in PLAY mode), projectiles, then the tick's events. Runs between drawing
+	 * the level tiles and the objects.
+	 */
+	private void simulate() {
+		if (tool == Tools.PLAY) {
+			prepareGameObjects(!playing); // everything updates once on entering
+			playing = true;
+			for (int i = 0; i < applet.gameObjects.size(); i++) {
+				if (!applet.gameObjects.get(i).sleeping) {
+					applet.gameObjects.get(i).update();
+				}
+			}
+		} else {
+			playing = false;
+		}
+
+		applet.projectileObjects.update();
+
+		if (tool == Tools.PLAY) {
+			applet.player.update();
+		}
+
+		applet.events.dispatch();
+	}
+
+	/**
+	 * Decides which game objects sleep this tick, then runs the first update
+	 * phase of the awake ones (in parallel for large levels).
+	 */
+	private void prepareGameObjects(boolean wakeAll) {
+		wakeActiveRegion();
+		for (int i = 0; i < applet.gameObjects.size(); i++) {
+			GameObject object = applet.gameObjects.get(i);
+			object.sleeping = !wakeAll && !applet.gameIndex.isAwake(object) && !object.isWoken();
+		}
+		ParallelUpdate.prepare(applet.gameObjects, object -> {
+			if (!object.sleeping) {
+				object.prepare();
+			}
+		});
+	}
+
+	/**
+	 * Wakes the game objects in the cells within {@link Options#sleepRadius} of
+	 * the player or a projectile; the others sleep (are not updated) this frame
+	 * unless woken by an event.
+	 */
+	private void wakeActiveRegion() {
+		int radius = Options.sleepRadius;
+		applet.gameIndex.sleepAll();
+		applet.gameIndex.wake(applet.player.pos.x, applet.player.pos.y, radius);
+		for (int i = 0; i < applet.projectileObjects.size(); i++) {
+			PVector pos = applet.projectileObjects.get(i).pos;
+			applet.gameIndex.wake(pos.x, pos.y, radius);
+		}
+	}
+
+	/**
+	 * Draws (and edits) level tiles as individual objects.
+	 */
+	private void displayEditableTiles() {
+		// View Background Objects
+		for (int i = 0; i < applet.backgroundObjects.size(); i++) {
+			if (tool == Tools.MODIFY) {
+				applet.backgroundObjects.get(i).updateEdit();
+			}
+
+			applet.backgroundObjects.get(i).display();
+
+			if (applet.backgroundObjects.get(i).focus && applet.keyPress(8) && applet.keyPressEvent) {
+				journal.remove(applet.backgroundObjects.get(i));
+				applet.backgroundObjects.remove(i);
+				applet.keyPressEvent = false;
+			}
+		}
+
+		// View Collidable objects
+		for (int i = 0; i < applet.collidableObjects.size(); i++) {
+			if (tool == Tools.MODIFY) {
+				applet.collidableObjects.get(i).updateEdit();
+			}
+
+			applet.collidableObjects.get(i).display();
+
+			if (applet.collidableObjects.get(i).focus && applet.keyPress(8) && applet.keyPressEvent) {
+				journal.remove(applet.collidableObjects.get(i));
+				applet.collidableObjects.remove(i);
+				applet.keyPressEvent = false;
+			}
+		}
+	}
+
+	/**
+	 * Draws the level tiles from the tile layers, packing the object lists into
+	 * them on entering PLAY. Only the chunks in view are drawn.
+	 */
+	private void displayLayers() {
+		if (!applet.collisionLayer.isPacked()) {
+			applet.backgroundLayer.pack();
+			applet.collisionLayer.pack();
+			focusedObject = null; // its tile may be packed
+		}
+
+		applet.backgroundLayer.display(applet, viewMinX, viewMinY, viewMaxX, viewMaxY);
+		applet.collisionLayer.display(applet, viewMinX, viewMinY, viewMaxX, viewMaxY);
+	}
+
+	private void updateView() {
+		PVector min = applet.camera.getDispToCoord(new PVector(0, 0));
+		PVector max = applet.camera.getDispToCoord(new PVector(applet.width, applet.height));
+		float margin = applet.width; // camera rotation
+		viewMinX = min.x - margin;
+		viewMinY = min.y - margin;
+		viewMaxX = max.x + margin;
+		viewMaxY = max.y + margin;
+	}
+
 	/**
 	 * Draw scene elements that are above the camera.
 	 */
@@ -271,7 +429,6 @@ public class SceneMapEditor extends PScene {
 							&& applet.getMouseY() > y - (20 * 4) / 2 && applet.getMouseY() < y + (20 * 4) / 2) {
 						editorItem.focus = true;
 						editorItem.setTile(inventory.get(i));
-						editorItem.type = Tileset.getTileType(inventory.get(i));
 					}
 				}
 			}
@@ -450,8 +607,9 @@ public class SceneMapEditor extends PScene {
 		int y = 1;
 		int index = 0;
 		tileType[] tiles = { tileType.COLLISION, tileType.BACKGROUND, tileType.OBJECT };
-		ArrayList<PImage> inventoryTiles = Tileset.getAllTiles(tiles);
-		for (PImage img : inventoryTiles) {
+		ArrayList<Integer> inventoryTiles = Tileset.getAllTileIds(tiles);
+		for (int tile : inventoryTiles) {
+			PImage img = Tileset.getTile(tile);
 			if (index % 6 == 0) { // show 6 items per row
 				x = 0;
 				y++;
@@ -475,7 +633,7 @@ public class SceneMapEditor extends PScene {
 					if (applet.getMouseX() > xx - (20 * 4) / 2 && applet.getMouseX() < xx + (20 * 4) / 2
 							&& applet.getMouseY() > yy - (20 * 4) / 2 && applet.getMouseY() < yy + (20 * 4) / 2) {
 						editorItem.focus = true;
-						editorItem.setTile(Tileset.getTileName(Tileset.getTileId(img)));
+						editorItem.setTile(tile);
 					}
 				}
 			}
@@ -514,7 +672,7 @@ public class SceneMapEditor extends PScene {
 				if (editorItem.focus && applet.getMouseX() > xx - (20 * 4) / 2 && applet.getMouseX() < xx + (20 * 4) / 2
 						&& applet.getMouseY() > yy - (20 * 4) / 2 && applet.getMouseY() < yy + (20 * 4) / 2) {
 					editorItem.focus = false;
-					inventory.set(i, editorItem.id);
+					inventory.set(i, editorItem.tile);
 				}
 			}
 		}
@@ -540,7 +698,7 @@ public class SceneMapEditor extends PScene {
 		int y = 1;
 
 		tileType[] tiles = { tileType.COLLISION, tileType.BACKGROUND, tileType.OBJECT };
-		ArrayList<PImage> inventoryTiles = Tileset.getAllTiles(tiles);
+		ArrayList<Integer> inventoryTiles = Tileset.getAllTileIds(tiles);
 		for (int i = 0; i < inventoryTiles.size(); i++) {
 			if (i % 6 == 0) {
 				y++;
@@ -73,6 +73,7 @@ public final class Camera extends ZoomPan {
 	 * Object that the camera is tracking (if {@link #following} is True).
 	 */
 	private EditableObject followObject;
+	private PVector followPos = new PVector(0, 0);
 	private float zoomMax = 100, zoomMin = 0;
 	/**
 	 * Trauma is used internally to inform the magnitude of camera shake.
@@ -217,13 +218,16 @@ public final class Camera extends ZoomPan {
 		setZoomScaleX(scale);
 		setZoomScaleY(scale);
 
+		if (following) {
+			followObject.getRenderPos(applet.clock.getAlpha(), followPos); // as drawn between updates
+		}
 		if (following && (((deadZoneScreen && !withinScreenDeadZone()) || ((deadZoneWorld && !withinWorldDeadZone()))
 				|| (!deadZoneScreen && !deadZoneWorld)))) {
 			setPanOffset(
 					PApplet.lerp(getPanOffset().x,
-							(-followObject.pos.x - followObjectOffset.x - shakeOffset.x + offset.x) * zoom, lerpSpeed),
+							(-followPos.x - followObjectOffset.x - shakeOffset.x + offset.x) * zoom, lerpSpeed),
 					PApplet.lerp(getPanOffset().y,
-							(-followObject.pos.y - followObjectOffset.y - shakeOffset.y + offset.y) * zoom, lerpSpeed));
+							(-followPos.y - followObjectOffset.y - shakeOffset.y + offset.y) * zoom, lerpSpeed));
 		} else if (!following) {
 			setPanOffset(
 					PApplet.lerp(getPanOffset().x, (targetPosition.x - shakeOffset.x + offset.x) * zoom, lerpSpeed),
@@ -0,0 +1,113 @@
+package sidescroller;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+
+/**
+ * <h1>EventBus Class</h1>
+ * <p>
+ * Queues gameplay events during the simulation step and dispatches them in a
+ * batch afterwards ({@link #dispatch()}), so interactions are pushed to the
+ * objects involved instead of every object polling every list each frame.
+ * </p>
+ * <p>
+ * An event goes first to its target (if any), then to every listener
+ * subscribed to its type. Events posted while dispatching are delivered in the
+ * same dispatch, up to {@link #MAX_PASSES} rounds; anything left is delivered
+ * next frame. Events are pooled: listeners must not keep them. The source may
+ * have been despawned (and recycled) by dispatch time, so positions are copied
+ * into the event.
+ * </p>
+ */
+public class EventBus {
+
+	public enum Type {
+		COLLISION_BEGIN, HIT, SPAWN, DESPAWN, ANIMATION_END, ATTACK
+	}
+
+	public interface Listener {
+		void onEvent(Event event);
+	}
+
+	public static class Event {
+		public Type type;
+		public Object source;
+		public Listener target;
+		public float x;
+		public float y;
+	}
+
+	private static final int MAX_PASSES = 4;
+
+	private final EnumMap<Type, ArrayList<Listener>> listeners = new EnumMap<Type, ArrayList<Listener>>(Type.class);
+	private ArrayList<Event> queue = new ArrayList<Event>();
+	private ArrayList<Event> dispatching = new ArrayList<Event>();
+	private final ArrayList<Event> free = new ArrayList<Event>();
+
+	public EventBus() {
+		for (Type type : Type.values()) {
+			listeners.put(type, new ArrayList<Listener>());
+		}
+	}
+
+	public void subscribe(Type type, Listener listener) {
+		listeners.get(type).add(listener);
+	}
+
+	public void unsubscribe(Type type, Listener listener) {
+		listeners.get(type).remove(listener);
+	}
+
+	/**
+	 * Queues an event for the next {@link #dispatch()}.
+	 *
+	 * @param target receives the event before the subscribers; may be null.
+	 */
+	public void post(Type type, Object source, Listener target, float x, float y) {
+		Event event = free.isEmpty() ? new Event() : free.remove(free.size() - 1);
+		event.type = type;
+		event.source = source;
+		event.target = target;
+		event.x = x;
+		event.y = y;
+		queue.add(event);
+	}
+
+	/**
+	 * Delivers the queued events.
+	 */
+	public void dispatch() {
+		for (int pass = 0; pass < MAX_PASSES && !queue.isEmpty(); pass++) {
+			ArrayList<Event> batch = queue;
+			queue = dispatching;
+			dispatching = batch;
+
+			for (int i = 0; i < batch.size(); i++) {
+				Event event = batch.get(i);
+				if (event.target != null) {
+					event.target.onEvent(event);
+				}
+				ArrayList<Listener> subscribers = listeners.get(event.type);
+				for (int j = 0; j < subscribers.size(); j++) {
+					subscribers.get(j).onEvent(event);
+				}
+				event.source = null;
+				event.target = null;
+				free.add(event);
+			}
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Drops the queued events (e.g. when a level is loaded).
+	 */
+	public void clear() {
+		for (int i = 0; i < queue.size(); i++) {
+			queue.get(i).source = null;
+			queue.get(i).target = null;
+		}
+		free.addAll(queue);
+		queue.clear();
+	}
+}
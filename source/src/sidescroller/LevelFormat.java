@@ -0,0 +1,147 @@
+package sidescroller;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.TreeMap;
+
+import processing.data.JSONArray;
+import processing.data.JSONObject;
+
+/**
+ * <h1>LevelFormat Class</h1>
+ * <p>
+ * Versioning for the level file format. The header (first entry) of a level
+ * carries a <code>format</code> number; levels written by an older version are
+ * upgraded on load by running every registered {@link Migration} step between
+ * their version and {@link #VERSION}, in order.
+ * </p>
+ * <p>
+ * To change the format: bump {@link #VERSION} and register a migration from the
+ * previous version. {@link LevelMigrationTool} can then rewrite all maps.
+ * </p>
+ */
+public final class LevelFormat {
+
+	/**
+	 * Format written by {@link Util#saveLevel(String)}.
+	 * <ul>
+	 * <li>0 - no header, first entry is a tile</li>
+	 * <li>1 - header with <code>version: "alpha 1.0.0"</code></li>
+	 * <li>2 - <code>format</code> in header, no child collisions</li>
+	 * </ul>
+	 */
+	public static final int VERSION = 2;
+
+	/**
+	 * Upgrades level data from one version to the next, in place.
+	 */
+	public interface Migration {
+		void apply(JSONArray level);
+	}
+
+	private static final TreeMap<Integer, Migration> migrations = new TreeMap<Integer, Migration>();
+
+	static {
+		register(0, level -> { // add missing header
+			JSONObject main = new JSONObject();
+			main.setString("title", "undefined");
+			main.setString("creator", "undefined");
+			main.setString("version", "alpha 1.0.0");
+			level.append(main);
+			for (int i = level.size() - 1; i >= 1; i--) { // shift entries up
+				level.setJSONObject(i, level.getJSONObject(i - 1));
+			}
+			level.setJSONObject(0, main);
+		});
+		register(1, level -> { // drop child collisions (saved without id by old saveLevel)
+			for (int i = level.size() - 1; i >= 1; i--) {
+				JSONObject item = level.getJSONObject(i);
+				if (item.getString("type", "").equals("COLLISION") && !item.hasKey("id")) {
+					level.remove(i);
+				}
+			}
+		});
+	}
+
+	private LevelFormat() {
+	}
+
+	/**
+	 * Registers the step that upgrades level data from version <code>from</code>
+	 * to <code>from + 1</code>.
+	 */
+	public static void register(int from, Migration migration) {
+		migrations.put(from, migration);
+	}
+
+	/**
+	 * @return format version of level data.
+	 */
+	public static int getVersion(JSONArray level) {
+		if (level.size() == 0) {
+			return VERSION;
+		}
+		JSONObject main = level.getJSONObject(0);
+		if (main.hasKey("type")) {
+			return 0;
+		}
+		return main.getInt("format", 1);
+	}
+
+	/**
+	 * Upgrades level data to the current version.
+	 *
+	 * @param level level data (modified in place).
+	 * @return version the data had before migrating.
+	 */
+	public static int migrate(JSONArray level) {
+		int version = getVersion(level);
+		if (version > VERSION) {
+			throw new IllegalArgumentException("Level format " + version + " is newer than supported (" + VERSION + ")");
+		}
+		for (int v = version; v < VERSION; v++) {
+			Migration migration = migrations.get(v);
+			if (migration == null) {
+				throw new IllegalStateException("No level migration registered from format " + v);
+			}
+			migration.apply(level);
+		}
+		if (level.size() > 0) {
+			level.getJSONObject(0).setInt("format", VERSION);
+		}
+		return version;
+	}
+
+	/**
+	 * Checks that level data (current format) is well formed.
+	 *
+	 * @param level    level data.
+	 * @param knownIds tile/object ids that may be referenced, or null to skip id
+	 *                 checks.
+	 * @return problems found, empty if valid.
+	 */
+	public static ArrayList<String> validate(JSONArray level, Set<String> knownIds) {
+		ArrayList<String> errors = new ArrayList<String>();
+		if (level.size() == 0 || level.getJSONObject(0).hasKey("type")) {
+			errors.add("missing header");
+			return errors;
+		}
+		for (int i = 1; i < level.size(); i++) {
+			JSONObject item = level.getJSONObject(i);
+			String type = item.getString("type", null);
+			if (type == null || !(type.equals("COLLISION") || type.equals("BACKGROUND") || type.equals("OBJECT"))) {
+				errors.add("entry " + i + ": bad type ( " + type + " )");
+			}
+			if (!item.hasKey("x") || !item.hasKey("y")) {
+				errors.add("entry " + i + ": missing position");
+			}
+			String id = item.getString("id", null);
+			if (id == null) {
+				errors.add("entry " + i + ": missing id");
+			} else if (knownIds != null && !knownIds.contains(id)) {
+				errors.add("entry " + i + ": unknown id ( " + id + " )");
+			}
+		}
+		return errors;
+	}
+}
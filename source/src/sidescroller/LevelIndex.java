@@ -0,0 +1,320 @@
+package sidescroller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PImage;
+import processing.data.JSONArray;
+import processing.data.JSONObject;
+
+/**
+ * <h1>LevelIndex Class</h1>
+ * <p>
+ * Background index of the levels in a maps directory. Each level is parsed once
+ * for its metadata and a small thumbnail; entries are cached by file
+ * modification time and size and kept fresh by a directory watcher, so windows
+ * listing levels never touch the disk themselves.
+ * </p>
+ */
+public class LevelIndex {
+
+	private static final String EXTENSION = ".dat";
+	private static final int THUMBNAIL_W = 120;
+	private static final int THUMBNAIL_H = 80;
+	private static final int TILE_SIZE = 64; // default footprint for unknown tiles
+
+	/**
+	 * Cached metadata for one level file. Immutable once published.
+	 */
+	public static class Entry {
+		public final String name;
+		public final long modified;
+		public final long size;
+		public final String title;
+		public final String creator;
+		public final String version;
+		public final int collisions;
+		public final int backgrounds;
+		public final int objects;
+		public final int minX, minY, maxX, maxY; // bounds (object centers)
+		public final PImage thumbnail;
+		public final String error; // non-null if the level could not be read
+
+		Entry(String name, long modified, long size, String title, String creator, String version, int collisions,
+				int backgrounds, int objects, int minX, int minY, int maxX, int maxY, PImage thumbnail) {
+			this.name = name;
+			this.modified = modified;
+			this.size = size;
+			this.title = title;
+			this.creator = creator;
+			this.version = version;
+			this.collisions = collisions;
+			this.backgrounds = backgrounds;
+			this.objects = objects;
+			this.minX = minX;
+			this.minY = minY;
+			this.maxX = maxX;
+			this.maxY = maxY;
+			this.thumbnail = thumbnail;
+			this.error = null;
+		}
+
+		/**
+		 * Entry for a level that could not be read.
+		 */
+		Entry(String name, long modified, long size, String error) {
+			this.name = name;
+			this.modified = modified;
+			this.size = size;
+			this.title = null;
+			this.creator = null;
+			this.version = null;
+			this.collisions = 0;
+			this.backgrounds = 0;
+			this.objects = 0;
+			this.minX = minY = maxX = maxY = 0;
+			this.thumbnail = null;
+			this.error = error;
+		}
+	}
+
+	private final File directory;
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private final ExecutorService scanner;
+	private WatchService watcher;
+
+	/**
+	 * Incremented whenever the index changes, so that views can poll cheaply.
+	 */
+	private volatile int revision;
+
+	/**
+	 * Tile average colours, resolved on the animation thread ahead of time so
+	 * thumbnails can be drawn off it.
+	 */
+	private final HashMap<String, Integer> tileColors = new HashMap<String, Integer>();
+	private final HashMap<String, int[]> tileSizes = new HashMap<String, int[]>();
+
+	public LevelIndex(String path) {
+		directory = new File(path);
+		scanner = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "LevelIndex");
+			t.setDaemon(true);
+			return t;
+		});
+
+		for (int i = 0; i < Tileset.getTileCount(); i++) {
+			PImage tile = Tileset.getTile(i);
+			tileColors.put(Tileset.getTileName(i), averageColor(tile));
+			tileSizes.put(Tileset.getTileName(i), new int[] { tile.width, tile.height });
+		}
+
+		scanner.execute(this::scan);
+		watch();
+	}
+
+	/**
+	 * @return level file names, sorted.
+	 */
+	public String[] getNames() {
+		String[] names = entries.keySet().toArray(new String[0]);
+		Arrays.sort(names);
+		return names;
+	}
+
+	/**
+	 * @param name level file name.
+	 * @return cached entry, or null if not (yet) indexed.
+	 */
+	public Entry get(String name) {
+		return entries.get(name);
+	}
+
+	public int getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Indexes every level in the directory, reusing entries whose file is
+	 * unchanged.
+	 */
+	private void scan() {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			index(file);
+		}
+		for (String name : entries.keySet()) {
+			if (!new File(directory, name).isFile()) {
+				entries.remove(name);
+				revision++;
+			}
+		}
+	}
+
+	private void index(File file) {
+		if (!file.isFile() || !file.getName().endsWith(EXTENSION)) {
+			if (entries.remove(file.getName()) != null) {
+				revision++;
+			}
+			return;
+		}
+		Entry cached = entries.get(file.getName());
+		if (cached != null && cached.modified == file.lastModified() && cached.size == file.length()) {
+			return;
+		}
+		entries.put(file.getName(), read(file));
+		revision++;
+	}
+
+	private Entry read(File file) {
+		long modified = file.lastModified(); // before reading, so a later change is picked up
+		long size = file.length();
+		try {
+			String script = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+			JSONArray data = JSONArray.parse(Util.decrypt(script));
+			LevelFormat.migrate(data);
+
+			JSONObject main = data.getJSONObject(0);
+			int collisions = 0, backgrounds = 0, objects = 0;
+			int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+			int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+			for (int i = 1; i < data.size(); i++) {
+				JSONObject item = data.getJSONObject(i);
+				switch (item.getString("type", "")) {
+					case "COLLISION" :
+						collisions++;
+						break;
+					case "BACKGROUND" :
+						backgrounds++;
+						break;
+					case "OBJECT" :
+						objects++;
+						break;
+				}
+				minX = Math.min(minX, item.getInt("x"));
+				minY = Math.min(minY, item.getInt("y"));
+				maxX = Math.max(maxX, item.getInt("x"));
+				maxY = Math.max(maxY, item.getInt("y"));
+			}
+			return new Entry(file.getName(), modified, size, main.getString("title", "undefined"),
+					main.getString("creator", "undefined"), main.getString("version", "undefined"), collisions,
+					backgrounds, objects, minX, minY, maxX, maxY, renderThumbnail(data, minX, minY, maxX, maxY));
+		} catch (IOException | RuntimeException e) {
+			return new Entry(file.getName(), modified, size, e.getMessage() == null ? e.toString() : e.getMessage());
+		}
+	}
+
+	/**
+	 * Draws each level item as a block of its tile's average colour, directly into
+	 * a pixel buffer (no PGraphics, which must stay on the animation thread).
+	 */
+	private PImage renderThumbnail(JSONArray data, int minX, int minY, int maxX, int maxY) {
+		PImage thumbnail = new PImage(THUMBNAIL_W, THUMBNAIL_H, PConstants.ARGB);
+		if (minX > maxX) {
+			return thumbnail; // empty level
+		}
+
+		float worldW = maxX - minX + TILE_SIZE;
+		float worldH = maxY - minY + TILE_SIZE;
+		float scale = Math.min(THUMBNAIL_W / worldW, THUMBNAIL_H / worldH);
+		float offsetX = (THUMBNAIL_W - worldW * scale) / 2 - (minX - TILE_SIZE / 2) * scale;
+		float offsetY = (THUMBNAIL_H - worldH * scale) / 2 - (minY - TILE_SIZE / 2) * scale;
+
+		for (String pass : new String[] { "BACKGROUND", "COLLISION", "OBJECT" }) {
+			for (int i = 1; i < data.size(); i++) {
+				JSONObject item = data.getJSONObject(i);
+				if (!pass.equals(item.getString("type", ""))) {
+					continue;
+				}
+				String id = item.getString("id", "");
+				int[] size = tileSizes.containsKey(id) ? tileSizes.get(id) : new int[] { TILE_SIZE, TILE_SIZE };
+				int color = tileColors.containsKey(id) ? tileColors.get(id) : 0xFF00FFC8;
+				if (pass.equals("BACKGROUND")) {
+					color = (color & 0x00FFFFFF) | 0x80000000;
+				}
+				int x0 = (int) (offsetX + (item.getInt("x") - size[0] / 2) * scale);
+				int y0 = (int) (offsetY + (item.getInt("y") - size[1] / 2) * scale);
+				int x1 = Math.max(x0 + 1, (int) (offsetX + (item.getInt("x") + size[0] / 2) * scale));
+				int y1 = Math.max(y0 + 1, (int) (offsetY + (item.getInt("y") + size[1] / 2) * scale));
+				for (int y = Math.max(0, y0); y < Math.min(THUMBNAIL_H, y1); y++) {
+					for (int x = Math.max(0, x0); x < Math.min(THUMBNAIL_W, x1); x++) {
+						thumbnail.pixels[y * THUMBNAIL_W + x] = color;
+					}
+				}
+			}
+		}
+		thumbnail.updatePixels();
+		return thumbnail;
+	}
+
+	/**
+	 * Re-indexes files as they are created, changed or removed.
+	 */
+	private void watch() {
+		try {
+			watcher = directory.toPath().getFileSystem().newWatchService();
+			directory.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+		} catch (IOException e) {
+			PApplet.println("<LevelIndex> Could not watch ( " + directory + " ), index will not refresh >");
+			return;
+		}
+
+		Thread thread = new Thread(() -> {
+			try {
+				while (true) {
+					WatchKey key = watcher.take();
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+							scanner.execute(this::scan);
+						} else {
+							File file = new File(directory, ((Path) event.context()).toString());
+							scanner.execute(() -> index(file));
+						}
+					}
+					if (!key.reset()) {
+						return;
+					}
+				}
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+			}
+		}, "LevelIndex-Watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private static int averageColor(PImage image) {
+		image.loadPixels();
+		long r = 0, g = 0, b = 0, n = 0;
+		for (int c : image.pixels) {
+			if ((c >>> 24) > 0) {
+				r += (c >> 16) & 0xFF;
+				g += (c >> 8) & 0xFF;
+				b += c & 0xFF;
+				n++;
+			}
+		}
+		if (n == 0) {
+			return 0;
+		}
+		return 0xFF000000 | (int) (r / n) << 16 | (int) (g / n) << 8 | (int) (b / n);
+	}
+}
@@ -0,0 +1,363 @@
+package sidescroller;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import objects.BackgroundObject;
+import objects.CollidableObject;
+import objects.EditableObject;
+import objects.GameObject;
+import processing.core.PApplet;
+import processing.core.PVector;
+
+/**
+ * <h1>LevelJournal Class</h1>
+ * <p>
+ * Autosave for the map editor. Rather than rewriting the whole level on every
+ * change, each add, move and delete is appended as one line to a journal file.
+ * Every {@link #COMPACT_INTERVAL} ms the journal is folded into a full level
+ * snapshot on a background thread, after which the journal starts over.
+ * </p>
+ * <p>
+ * After a crash, or an exit with unsaved edits, the snapshot is loaded and the
+ * journal(s) replayed on top of it (see {@link #open()}).
+ * </p>
+ */
+public class LevelJournal {
+
+	private static final String DIRECTORY = "Assets/Storage/Game/Autosave/";
+	private static final String SNAPSHOT = DIRECTORY + "autosave.dat";
+	private static final String JOURNAL = DIRECTORY + "journal.log";
+	/**
+	 * The journal is rolled to this file while a compaction is in flight, so edits
+	 * made in the meantime go to a fresh journal.
+	 */
+	private static final String ROLLED = DIRECTORY + "journal.log.old";
+	/**
+	 * Exists while the editor holds edits not yet saved to a level file (they may
+	 * already be folded into the snapshot, leaving the journal empty).
+	 */
+	private static final String UNSAVED = DIRECTORY + "unsaved";
+	private static final int COMPACT_INTERVAL = 30000; // ms
+
+	private static final String ADD = "ADD";
+	private static final String MOVE = "MOVE";
+	private static final String DELETE = "DELETE";
+
+	private SideScroller applet;
+	private Util util;
+
+	private BufferedWriter writer;
+	private ExecutorService compactor;
+	private volatile boolean compacting;
+
+	private int edits; // edits since the last compaction
+	private boolean unsaved; // edits since the level was loaded or saved
+	private int lastCompaction;
+
+	public LevelJournal(SideScroller a) {
+		applet = a;
+		util = new Util(a);
+		compactor = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "LevelJournal");
+			t.setDaemon(true);
+			return t;
+		});
+		new File(DIRECTORY).mkdirs();
+	}
+
+	/**
+	 * Recovers unsaved edits left by a previous session (if any), then starts a new
+	 * journal. Call once the level has been loaded.
+	 */
+	public void open() {
+		boolean recover = hasEntries(JOURNAL) || hasEntries(ROLLED) || new File(UNSAVED).exists();
+		if (recover) {
+			if (new File(SNAPSHOT).exists()) {
+				util.loadLevel(SNAPSHOT);
+			}
+			replay(ROLLED);
+			replay(JOURNAL);
+			PApplet.println("<LevelJournal> Recovered unsaved editor changes");
+		}
+		begin();
+		if (recover) {
+			markUnsaved(); // still not in a level file
+		}
+	}
+
+	/**
+	 * Starts a new journal against the level currently loaded. Should be called
+	 * whenever a different level is loaded into the editor.
+	 */
+	public void begin() {
+		close();
+		new File(ROLLED).delete();
+		new File(UNSAVED).delete();
+		unsaved = false;
+		try {
+			writer = newWriter();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		edits = 1; // force a fresh snapshot of the new level
+		compact();
+	}
+
+	/**
+	 * Discards the journal. Unlike {@link #begin()} nothing is snapshotted and no
+	 * new journal is started.
+	 */
+	public void clear() {
+		close();
+		new File(JOURNAL).delete();
+		new File(ROLLED).delete();
+		new File(UNSAVED).delete();
+	}
+
+	/**
+	 * On exit: discards the journal if every edit was saved, otherwise leaves it
+	 * for the next start to recover.
+	 */
+	public void shutdown() {
+		if (unsaved) {
+			close();
+		} else {
+			clear();
+		}
+	}
+
+	/**
+	 * Compacts the journal when it is due. Called once per frame.
+	 */
+	public void update() {
+		if (edits > 0 && !compacting && !applet.collisionLayer.isPacked()
+				&& applet.millis() - lastCompaction > COMPACT_INTERVAL) { // lists are partial while packed
+			compact();
+		}
+	}
+
+	public void add(EditableObject o) {
+		String type = getType(o);
+		if (type != null) {
+			append(ADD + '\t' + type + '\t' + o.id + '\t' + (int) o.pos.x + '\t' + (int) o.pos.y);
+		}
+	}
+
+	/**
+	 * @param o    Object moved (already at its new position).
+	 * @param from Position before the move.
+	 */
+	public void move(EditableObject o, PVector from) {
+		String type = getType(o);
+		if (type != null) {
+			append(MOVE + '\t' + type + '\t' + o.id + '\t' + (int) from.x + '\t' + (int) from.y + '\t' + (int) o.pos.x
+					+ '\t' + (int) o.pos.y);
+		}
+	}
+
+	public void remove(EditableObject o) {
+		String type = getType(o);
+		if (type != null) {
+			append(DELETE + '\t' + type + '\t' + o.id + '\t' + (int) o.pos.x + '\t' + (int) o.pos.y);
+		}
+	}
+
+	private void append(String entry) {
+		if (writer == null) {
+			return;
+		}
+		try {
+			writer.write(entry);
+			writer.newLine();
+			writer.flush();
+			edits++;
+			markUnsaved();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Snapshots the level on the animation thread (objects are not thread-safe),
+	 * rolls the journal and hands the snapshot to the background thread. The
+	 * rolled journal is deleted only once the snapshot is safely on disk; if an
+	 * earlier snapshot failed, the journal is appended to the rolled one so those
+	 * edits are still recoverable.
+	 */
+	private void compact() {
+		if (compacting) {
+			return;
+		}
+		compacting = true;
+		final String level = util.levelToJSON().toString();
+		close();
+		try {
+			if (new File(ROLLED).exists()) {
+				Files.write(new File(ROLLED).toPath(), Files.readAllBytes(new File(JOURNAL).toPath()),
+						StandardOpenOption.APPEND);
+				new File(JOURNAL).delete();
+			} else {
+				Files.move(new File(JOURNAL).toPath(), new File(ROLLED).toPath());
+			}
+			writer = newWriter();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		edits = 0;
+		lastCompaction = applet.millis();
+
+		compactor.execute(() -> {
+			try {
+				File temp = new File(SNAPSHOT + ".tmp");
+				if (!Util.saveFile(temp.getPath(), Util.encrypt(level))) { // keep the old snapshot and journal
+					temp.delete();
+					return;
+				}
+				Files.move(temp.toPath(), new File(SNAPSHOT).toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+				new File(ROLLED).delete();
+			} catch (IOException e) {
+				e.printStackTrace();
+			} finally {
+				compacting = false;
+			}
+		});
+	}
+
+	private void replay(String path) {
+		if (!new File(path).exists()) {
+			return;
+		}
+		List<String> entries;
+		try {
+			entries = Files.readAllLines(new File(path).toPath(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		for (String entry : entries) {
+			String[] e = entry.split("\t");
+			try {
+				switch (e[0]) {
+					case ADD :
+						create(e[1], e[2], Integer.parseInt(e[3]), Integer.parseInt(e[4]));
+						break;
+					case MOVE :
+						EditableObject o = find(e[1], e[2], Integer.parseInt(e[3]), Integer.parseInt(e[4]));
+						if (o != null) {
+							o.pos.x = Integer.parseInt(e[5]);
+							o.pos.y = Integer.parseInt(e[6]);
+							o.moved();
+						}
+						break;
+					case DELETE :
+						EditableObject d = find(e[1], e[2], Integer.parseInt(e[3]), Integer.parseInt(e[4]));
+						getObjects(e[1]).remove(d);
+						if (d instanceof GameObject) {
+							applet.gameIndex.remove((GameObject) d);
+						}
+						break;
+				}
+			} catch (RuntimeException ex) { // torn final line after a crash
+				PApplet.println("<LevelJournal> Skipping bad entry ( " + entry + " )");
+			}
+		}
+	}
+
+	private void create(String type, String id, int x, int y) {
+		switch (type) {
+			case "COLLISION" :
+				applet.collidableObjects.add(new CollidableObject(applet, id, x, y));
+				break;
+			case "BACKGROUND" :
+				applet.backgroundObjects.add(new BackgroundObject(applet, id, x, y));
+				break;
+			case "OBJECT" :
+				GameObject gameObject = Tileset.getObjectClass(id);
+				gameObject.pos.x = x;
+				gameObject.pos.y = y;
+				applet.gameObjects.add(gameObject);
+				applet.gameIndex.add(gameObject);
+				break;
+		}
+	}
+
+	private EditableObject find(String type, String id, int x, int y) {
+		for (EditableObject o : getObjects(type)) {
+			if (id.equals(o.id) && (int) o.pos.x == x && (int) o.pos.y == y) {
+				return o;
+			}
+		}
+		return null;
+	}
+
+	private ArrayList<? extends EditableObject> getObjects(String type) {
+		switch (type) {
+			case "COLLISION" :
+				return applet.collidableObjects;
+			case "BACKGROUND" :
+				return applet.backgroundObjects;
+			default :
+				return applet.gameObjects;
+		}
+	}
+
+	/**
+	 * @return level JSON type of the object, or null for objects that are not saved
+	 *         with the level (player, child collisions).
+	 */
+	private static String getType(EditableObject o) {
+		if (o instanceof CollidableObject && !o.child) {
+			return "COLLISION";
+		}
+		if (o instanceof BackgroundObject) {
+			return "BACKGROUND";
+		}
+		if (o instanceof GameObject) {
+			return "OBJECT";
+		}
+		return null;
+	}
+
+	private static boolean hasEntries(String path) {
+		return new File(path).length() > 0;
+	}
+
+	private static BufferedWriter newWriter() throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(JOURNAL), StandardCharsets.UTF_8));
+	}
+
+	private void markUnsaved() {
+		if (!unsaved) {
+			unsaved = true;
+			try {
+				new File(UNSAVED).createNewFile();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void close() {
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			writer = null;
+		}
+	}
+}
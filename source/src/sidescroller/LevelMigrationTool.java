@@ -0,0 +1,146 @@
+package sidescroller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import processing.data.JSONArray;
+import processing.data.JSONObject;
+
+/**
+ * <h1>LevelMigrationTool Class</h1>
+ * <p>
+ * Command-line tool that upgrades every level in a maps directory to the
+ * current {@link LevelFormat#VERSION}, in parallel, and validates the result.
+ * Does not need the game (or a display) to run.
+ * </p>
+ *
+ * <pre>
+ * java sidescroller.LevelMigrationTool [--check] [maps directory]
+ * </pre>
+ * <p>
+ * <code>--check</code> reports what would change without writing any file. The
+ * exit status is 1 if any level failed to migrate or validate.
+ * </p>
+ */
+public class LevelMigrationTool {
+
+	private static final String MAPS = "Assets/Storage/Game/Maps/";
+	private static final String TILEDATA = "Assets/tileData.json";
+
+	private static class Result {
+		String name;
+		int fromVersion = -1;
+		boolean written;
+		long nanos;
+		List<String> errors = new ArrayList<String>();
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		boolean check = false;
+		String path = MAPS;
+		for (String arg : args) {
+			if (arg.equals("--check")) {
+				check = true;
+			} else {
+				path = arg;
+			}
+		}
+
+		File[] files = new File(path).listFiles((dir, name) -> name.endsWith(".dat"));
+		if (files == null) {
+			System.err.println("Not a directory: " + path);
+			System.exit(1);
+		}
+		Arrays.sort(files);
+
+		HashSet<String> knownIds = loadKnownIds();
+		final boolean dryRun = check;
+
+		ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		List<Future<Result>> futures = new ArrayList<Future<Result>>();
+		long start = System.nanoTime();
+		for (File file : files) {
+			futures.add(pool.submit(() -> migrate(file, knownIds, dryRun)));
+		}
+		pool.shutdown();
+
+		int failed = 0;
+		int written = 0;
+		for (Future<Result> future : futures) {
+			Result result;
+			try {
+				result = future.get();
+			} catch (ExecutionException e) {
+				e.printStackTrace();
+				failed++;
+				continue;
+			}
+			System.out.println(String.format("%-32s %s %8.2f ms  %s", result.name,
+					result.fromVersion < 0 ? "      " : result.fromVersion + " -> " + LevelFormat.VERSION,
+					result.nanos / 1e6, result.errors.isEmpty() ? (result.written ? "migrated" : "ok") : "FAILED"));
+			for (String error : result.errors) {
+				System.out.println("    " + error);
+			}
+			if (!result.errors.isEmpty()) {
+				failed++;
+			}
+			if (result.written) {
+				written++;
+			}
+		}
+		System.out.println(String.format("%d levels, %d %s, %d failed in %.2f ms", files.length, written,
+				check ? "to migrate" : "migrated", failed, (System.nanoTime() - start) / 1e6));
+		System.exit(failed > 0 ? 1 : 0);
+	}
+
+	private static Result migrate(File file, HashSet<String> knownIds, boolean check) {
+		Result result = new Result();
+		result.name = file.getName();
+		long start = System.nanoTime();
+		try {
+			String script = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+			JSONArray level = JSONArray.parse(Util.decrypt(script));
+			result.fromVersion = LevelFormat.migrate(level);
+			result.errors.addAll(LevelFormat.validate(level, knownIds));
+			if (result.errors.isEmpty() && result.fromVersion != LevelFormat.VERSION) {
+				result.written = check || Util.saveFile(file.getPath(), Util.encrypt(level.toString()));
+				if (!result.written) {
+					result.errors.add("Could not write " + file.getPath());
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			result.errors.add(e.toString());
+		}
+		result.nanos = System.nanoTime() - start;
+		return result;
+	}
+
+	/**
+	 * @return tile and object names from tileData.json, or null if it cannot be
+	 *         read (ids are then not checked).
+	 */
+	private static HashSet<String> loadKnownIds() {
+		try {
+			String data = new String(Files.readAllBytes(new File(TILEDATA).toPath()), StandardCharsets.UTF_8);
+			JSONArray tiles = JSONObject.parse(data).getJSONArray("tiles");
+			HashSet<String> ids = new HashSet<String>();
+			for (int i = 0; i < tiles.size(); i++) {
+				ids.add(tiles.getJSONObject(i).getString("name"));
+			}
+			return ids;
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Could not read " + TILEDATA + ", skipping id checks");
+			return null;
+		}
+	}
+}
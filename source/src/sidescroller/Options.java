@@ -13,6 +13,8 @@ public class Options {
 	public static int attackKey = 40;		//S = 83    DownArrow = 40
 	public static int dashKey = 16;			//Shift = 16
 	public static int targetFrameRate = 60;
+	public static int sleepRadius = 1024;	//Game objects further than this from the player and projectiles are not updated
+	public static int updateRate = 0;		//Simulation updates per second: 0 = one per frame, else a divisor of 60
 
 	public static void load()
 	{
@@ -30,6 +32,8 @@ public class Options {
 			attackKey = json.getInt("attackKey", attackKey);
 			dashKey = json.getInt("dashKey", dashKey);
 			targetFrameRate = json.getInt("targetFrameRate", targetFrameRate);
+			sleepRadius = json.getInt("sleepRadius", sleepRadius);
+			updateRate = SimulationClock.checkUpdateRate(json.getInt("updateRate", updateRate));
 		} catch (Exception e) {
 			save();
 		}
@@ -48,6 +52,8 @@ public class Options {
 		json.setInt("attackKey", attackKey);
 		json.setInt("dashKey", dashKey);
 		json.setInt("targetFrameRate", targetFrameRate);
+		json.setInt("sleepRadius", sleepRadius);
+		json.setInt("updateRate", updateRate);
 		
 		app.saveJSONObject(json, SAVEPATH);
 	}
@@ -0,0 +1,70 @@
+package sidescroller;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * <h1>ParallelUpdate Class</h1>
+ * <p>
+ * Runs the first phase of a two-phase update: the phase is applied to every
+ * item of a list, on the common fork-join pool when the list has at least
+ * {@link #PARALLEL_THRESHOLD} items and on the calling thread otherwise. The
+ * phase must only write to the item it is given; anything touching shared
+ * state (other objects, the world lists, events) belongs in the second, serial
+ * phase.
+ * </p>
+ */
+public final class ParallelUpdate {
+
+	public static final int PARALLEL_THRESHOLD = 512;
+	private static final int PARALLEL_BATCH = 128; // items per task
+
+	private ParallelUpdate() {
+	}
+
+	public static <T> void prepare(List<T> items, Consumer<? super T> phase) {
+		int n = items.size();
+		if (n >= PARALLEL_THRESHOLD) {
+			ForkJoinPool.commonPool().invoke(new Prepare<T>(items, phase, 0, n));
+		} else {
+			run(items, phase, 0, n);
+		}
+	}
+
+	private static <T> void run(List<T> items, Consumer<? super T> phase, int from, int to) {
+		for (int i = from; i < to; i++) {
+			phase.accept(items.get(i));
+		}
+	}
+
+	/**
+	 * Splits the phase into batches of {@link #PARALLEL_BATCH}.
+	 */
+	private static class Prepare<T> extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<T> items;
+		private final Consumer<? super T> phase;
+		private final int from, to;
+
+		Prepare(List<T> items, Consumer<? super T> phase, int from, int to) {
+			this.items = items;
+			this.phase = phase;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= PARALLEL_BATCH) {
+				run(items, phase, from, to);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Prepare<T>(items, phase, from, mid), new Prepare<T>(items, phase, mid, to));
+			}
+		}
+	}
+}
@@ -11,9 +11,13 @@ import entities.Player;
 import javafx.scene.canvas.Canvas;
 import javafx.stage.Stage;
 
+import ParticleSystem.ParticleEffects;
+
 import objects.BackgroundObject;
 import objects.CollidableObject;
 import objects.GameObject;
+import objects.SpatialIndex;
+import objects.TileLayer;
 
 import processing.core.PApplet;
 import processing.core.PFont;
@@ -24,7 +28,9 @@ import processing.event.KeyEvent;
 import processing.event.MouseEvent;
 import processing.javafx.PSurfaceFX;
 
-import projectiles.ProjectileObject;
+import projectiles.MagicProjectile;
+import projectiles.ProjectileManager;
+import projectiles.ProjectilePool;
 
 import scene.PScene;
 import scene.SceneMapEditor;
@@ -65,7 +71,22 @@ public class SideScroller extends PApplet {
 	public ArrayList<CollidableObject> collidableObjects;
 	public ArrayList<BackgroundObject> backgroundObjects;
 	public ArrayList<GameObject> gameObjects;
-	public ArrayList<ProjectileObject> projectileObjects;
+	public ProjectileManager projectileObjects;
+	public ProjectilePool<MagicProjectile> magicProjectiles;
+	private static final int PROJECTILES = 64; // most magic projectiles alive at once
+
+	// Static tiles, packed from the object lists in play mode
+	public TileLayer<CollidableObject> collisionLayer;
+	public TileLayer<BackgroundObject> backgroundLayer;
+
+	// Spatial index of game object bounds (broadphase, culling and waking)
+	public SpatialIndex<GameObject> gameIndex;
+
+	// Gameplay events, dispatched after each simulation step
+	public EventBus events;
+
+	// Fixed-tick simulation clock
+	public SimulationClock clock;
 
 	// Events
 	private HashSet<Integer> keys;
@@ -74,6 +95,13 @@ public class SideScroller extends PApplet {
 	public boolean mousePressEvent;
 	public boolean mouseReleaseEvent;
 
+	// Events not yet seen by a simulation tick (see beginTick)
+	private boolean tickKeyPressEvent;
+	private boolean tickKeyReleaseEvent;
+	private boolean tickMousePressEvent;
+	private boolean tickMouseReleaseEvent;
+	private final boolean[] frameEvents = new boolean[4]; // the frame's flags, set aside during a tick
+
 	// Camera Variables
 	public Camera camera;
 	private PVector mousePosition;
@@ -149,7 +177,14 @@ public class SideScroller extends PApplet {
 		collidableObjects = new ArrayList<CollidableObject>();
 		backgroundObjects = new ArrayList<BackgroundObject>();
 		gameObjects = new ArrayList<GameObject>();
-		projectileObjects = new ArrayList<ProjectileObject>();
+		projectileObjects = new ProjectileManager(PROJECTILES, ProjectileManager.DEFAULT_LIFETIME);
+		magicProjectiles = new ProjectilePool<MagicProjectile>(PROJECTILES, () -> new MagicProjectile(this));
+		collisionLayer = new TileLayer<CollidableObject>(collidableObjects, () -> new CollidableObject(this),
+				color(50, 120, 255));
+		backgroundLayer = new TileLayer<BackgroundObject>(backgroundObjects, () -> new BackgroundObject(this),
+				color(50, 255, 120));
+		events = new EventBus();
+		clock = new SimulationClock();
 
 		// Create scene
 		mapEditor = new SceneMapEditor(this);
@@ -166,6 +201,12 @@ public class SideScroller extends PApplet {
 		// PVector(width * 0.75f, height * 0.75f)); // example
 		camera.setWorldDeadZone(new PVector(50, 0), new PVector(width * 0.25f, height * 0.25f)); // example
 		camera.setFollowObject(player);
+		events.subscribe(EventBus.Type.ATTACK, event -> camera.shake(0.3f));
+		events.subscribe(EventBus.Type.COLLISION_BEGIN, event -> {
+			if (event.source == player) {
+				camera.shake(0.4f); // landing
+			}
+		});
 	}
 
 	/**
@@ -185,9 +226,11 @@ public class SideScroller extends PApplet {
 
 		// Load Options
 		Options.load();
+		gameIndex = new SpatialIndex<GameObject>(64, Options.sleepRadius); // wake cells as wide as the radius
 
 		// Create All Graphics
 		Tileset.load(this);
+		ParticleEffects.load(this);
 
 		// Set Scene
 		setScene("MAPEDITOR");
@@ -207,6 +250,8 @@ public class SideScroller extends PApplet {
 	public void draw() {
 		surface.setTitle("Sardonyx Prealpha | " + mapEditor.tool.toString() + " | " + frameCount);
 
+		ParticleEffects.update(); // hot reload of edited effect definitions
+
 		pushMatrix();
 		drawBelowCamera: { // drawn objects enclosed by pushMatrix() and popMatrix() are transformed by the
 			// camera.
@@ -259,6 +304,7 @@ public class SideScroller extends PApplet {
 	public void keyPressed(KeyEvent event) {
 		keys.add(event.getKeyCode());
 		keyPressEvent = true;
+		tickKeyPressEvent = true;
 	}
 
 	/**
@@ -269,6 +315,7 @@ public class SideScroller extends PApplet {
 	public void keyReleased(KeyEvent event) {
 		keys.remove(event.getKeyCode());
 		keyReleaseEvent = true;
+		tickKeyReleaseEvent = true;
 
 		switch (event.getKey()) { // must be ALL-CAPS
 		case 'H':
@@ -324,6 +371,7 @@ public class SideScroller extends PApplet {
 	@Override
 	public void mousePressed() {
 		mousePressEvent = true;
+		tickMousePressEvent = true;
 	}
 
 	/**
@@ -332,6 +380,7 @@ public class SideScroller extends PApplet {
 	@Override
 	public void mouseReleased() {
 		mouseReleaseEvent = true;
+		tickMouseReleaseEvent = true;
 	}
 
 	/**
@@ -347,6 +396,37 @@ public class SideScroller extends PApplet {
 		}
 	}
 
+	/**
+	 * Switches the event flags to the tick's view of them for the duration of a
+	 * simulation tick: an event is seen by the first tick after it, however many
+	 * frames that takes and however many ticks that frame runs. Call
+	 * {@link #endTick()} after the tick.
+	 */
+	public void beginTick() {
+		frameEvents[0] = keyPressEvent;
+		frameEvents[1] = keyReleaseEvent;
+		frameEvents[2] = mousePressEvent;
+		frameEvents[3] = mouseReleaseEvent;
+		keyPressEvent = tickKeyPressEvent;
+		keyReleaseEvent = tickKeyReleaseEvent;
+		mousePressEvent = tickMousePressEvent;
+		mouseReleaseEvent = tickMouseReleaseEvent;
+	}
+
+	/**
+	 * Marks the tick's events as seen and restores the frame's event flags.
+	 */
+	public void endTick() {
+		tickKeyPressEvent = false;
+		tickKeyReleaseEvent = false;
+		tickMousePressEvent = false;
+		tickMouseReleaseEvent = false;
+		keyPressEvent = frameEvents[0];
+		keyReleaseEvent = frameEvents[1];
+		mousePressEvent = frameEvents[2];
+		mouseReleaseEvent = frameEvents[3];
+	}
+
 	/**
 	 * checks if the key pressed was valid, then returns true or false if the key
 	 * was accepted. This method is called when determining if a key has been
@@ -446,6 +526,19 @@ public class SideScroller extends PApplet {
 		text("[" + round(frameRate) + "]", width - ip, lineOffset * 10 + yOffset);
 	}
 
+	/**
+	 * Shutdown (also reached when the window is closed): the editor's autosave
+	 * journal is discarded if every edit was saved, otherwise kept so the next
+	 * start recovers it.
+	 */
+	@Override
+	public void dispose() {
+		if (mapEditor != null && mapEditor.journal != null) {
+			mapEditor.journal.shutdown();
+		}
+		super.dispose();
+	}
+
 	@Override
 	public void exit() {
 		// super.exit(); // commented-out - prevents ESC from closing game
@@ -0,0 +1,115 @@
+package sidescroller;
+
+import processing.core.PApplet;
+
+/**
+ * <h1>SimulationClock Class</h1>
+ * <p>
+ * Fixed-rate clock: decides how many simulation updates to run each frame, so
+ * the simulation rate is independent of the frame rate. The simulation still
+ * runs on the animation thread, between input and drawing. With
+ * {@link Options#updateRate} at 0 the world updates once per frame; otherwise
+ * it updates at that fixed rate, catching up at most {@link #MAX_UPDATES}
+ * updates in one frame (after a stall the rest are dropped rather than
+ * stalling the next frames too).
+ * </p>
+ * <p>
+ * Gameplay quantities (speeds, gravity, animation rates, lifetimes) are per
+ * tick and tuned for {@link #TICK_RATE} ticks a second, so an update runs
+ * {@link #getTicksPerUpdate()} ticks: one at 60 updates a second, two at 30,
+ * and so on. The update rate must divide {@link #TICK_RATE}; see
+ * {@link #checkUpdateRate(int)}.
+ * </p>
+ * <p>
+ * Gameplay timing (animations, timers) counts {@link #getTick() ticks}, not
+ * frames. Between updates, moving things are drawn interpolated from their
+ * position at the start of the last update to their current one by
+ * {@link #getAlpha()}, so motion stays smooth when frames outpace updates.
+ * </p>
+ */
+public class SimulationClock {
+
+	public static final int MAX_UPDATES = 4;
+	public static final int TICK_RATE = 60; // rate gameplay constants are tuned for
+
+	/**
+	 * @return the given update rate if supported (0, or a divisor of
+	 *         {@link #TICK_RATE}), otherwise the closest supported rate below it.
+	 */
+	public static int checkUpdateRate(int updateRate) {
+		if (updateRate == 0 || (updateRate > 0 && updateRate <= TICK_RATE && TICK_RATE % updateRate == 0)) {
+			return updateRate;
+		}
+		int rate = Math.max(1, Math.min(updateRate, TICK_RATE));
+		while (TICK_RATE % rate != 0) {
+			rate--;
+		}
+		PApplet.println("<SimulationClock> Error, unsupported update rate ( " + updateRate + " ), using " + rate
+				+ " >");
+		return rate;
+	}
+
+	private int tick;
+	private float accumulator; // ms not yet simulated
+	private int lastMillis = -1;
+
+	/**
+	 * @param millis current time.
+	 * @return number of updates to simulate this frame.
+	 */
+	public int advance(int millis) {
+		int elapsed = lastMillis < 0 ? 0 : millis - lastMillis;
+		lastMillis = millis;
+		if (Options.updateRate <= 0) {
+			accumulator = 0;
+			return 1;
+		}
+
+		float length = getUpdateLength();
+		accumulator += elapsed;
+		int updates = (int) (accumulator / length);
+		if (updates > MAX_UPDATES) { // stalled; drop the backlog
+			updates = MAX_UPDATES;
+			accumulator = 0;
+		} else {
+			accumulator -= updates * length;
+		}
+		return updates;
+	}
+
+	/**
+	 * @return fraction of an update elapsed since the last simulated update (1
+	 *         when updating once per frame).
+	 */
+	public float getAlpha() {
+		return Options.updateRate <= 0 ? 1 : Math.min(accumulator / getUpdateLength(), 1);
+	}
+
+	/**
+	 * Counts a simulated tick; call once before each tick.
+	 */
+	public void tick() {
+		tick++;
+	}
+
+	/**
+	 * @return number of ticks simulated so far.
+	 */
+	public int getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return ticks run by each update.
+	 */
+	public int getTicksPerUpdate() {
+		return Options.updateRate <= 0 ? 1 : TICK_RATE / Options.updateRate;
+	}
+
+	/**
+	 * @return update length in ms (0 when updating once per frame).
+	 */
+	public float getUpdateLength() {
+		return Options.updateRate <= 0 ? 0 : 1000f / Options.updateRate;
+	}
+}
@@ -4,8 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 
 import objects.GameObject;
-import objects.MagicSourceObject;
-import objects.MirrorBoxObject;
+import objects.GameObjectRegistry;
 import processing.core.PApplet;
 import processing.core.PGraphics;
 import processing.core.PImage;
@@ -14,6 +13,17 @@ import processing.data.JSONArray;
 
 /**
  * Tileset is a static class that loads and provides PImages
+ * <p>
+ * Tiles and animations are interned to small int handles on load, and
+ * collision categories to bits. Names are only needed at the edges (editor,
+ * level files); runtime code should resolve a handle once and use the int
+ * overloads.
+ * <p>
+ * Collision filtering: each tile has a <code>category</code> (what it is) and a
+ * <code>mask</code> (what it collides with), given as lists of category names
+ * in tileData.json. Two things collide if
+ * <code>(a.mask &amp; b.category) != 0</code>. Collision tiles default to
+ * category SOLID; masks default to everything.
  */
 public class Tileset {
 
@@ -27,6 +37,19 @@ public class Tileset {
 	
 	private static HashMap<String, Integer> tileRef = new HashMap<String, Integer>();
 	private static ArrayList<PImage> loadedTiles = new ArrayList<PImage>();
+	private static ArrayList<tileType> loadedTypes = new ArrayList<tileType>();
+	
+	private static HashMap<String, Integer> animationRef = new HashMap<String, Integer>();
+	private static ArrayList<ArrayList<PImage>> loadedAnimations = new ArrayList<ArrayList<PImage>>();
+	
+	/**
+	 * Collision category bits, by name (at most 32).
+	 */
+	private static HashMap<String, Integer> categoryRef = new HashMap<String, Integer>();
+	public static final int CATEGORY_ALL = -1;
+	public static final int CATEGORY_SOLID = getCategory("SOLID");
+	private static ArrayList<Integer> loadedCategories = new ArrayList<Integer>();
+	private static ArrayList<Integer> loadedMasks = new ArrayList<Integer>();
 	
 	private static JSONObject JSONtileData;
 	private static JSONArray JSONtiles;
@@ -41,6 +64,7 @@ public class Tileset {
 		graphicsSheet = applet.loadImage(TILESHEETPATH);
 		loadJSON();
 		loadTiles();
+		loadAnimations();
 	}
 	
 	public static PImage getTile(String name){
@@ -93,41 +117,68 @@ public class Tileset {
 	}
 	
 	public static tileType getTileType(int index) {
-		String type = JSONtiles.getJSONObject(index).getString("type", "COLLISION");
-		switch(type) {
-			case "COLLISION":
-				return tileType.COLLISION;
-			case "BACKGROUND":
-				return tileType.BACKGROUND;
-			case "OBJECT":
-				return tileType.OBJECT;
-			case "ENTITY":
-				return tileType.ENTITY;
-			default:
-				return null;
-		}
+		return loadedTypes.get(index);
 	}
 	
+	/**
+	 * @return shared frame list; do not modify.
+	 */
 	public static ArrayList<PImage> getAnimation(String name){
-		for(int i = 0; i < JSONanimations.size(); i++)
-		{
-			JSONObject animation = JSONanimations.getJSONObject(i);
-			if (animation.getString("name").contentEquals(name))
-			{
-				ArrayList<PImage> tiles = new ArrayList<PImage>();
-				JSONArray tileRefs = animation.getJSONArray("tileRef");
-				
-				for(int k = 0; k < tileRefs.size(); k++)
-				{
-					JSONObject tileRef = tileRefs.getJSONObject(k);
-					tiles.add(getTile(tileRef.getString("name")));
-				}
-
-				return tiles;
+		int id = getAnimationId(name);
+		return id < 0 ? null : getAnimation(id);
+	}
+	
+	/**
+	 * @return shared frame list; do not modify.
+	 */
+	public static ArrayList<PImage> getAnimation(int id){
+		return loadedAnimations.get(id);
+	}
+	
+	public static int getAnimationId(String name){
+		if (animationRef.containsKey(name))
+			return animationRef.get(name);
+		
+		PApplet.println("<Tileset> Error while loading, null string reference to animation ( " + name + " ) >");
+		return -1;
+	}
+	
+	/**
+	 * Interns a collision category name.
+	 * 
+	 * @return bit for the category; the same name always maps to the same bit.
+	 */
+	public static synchronized int getCategory(String name) {
+		Integer bit = categoryRef.get(name);
+		if (bit == null) {
+			if (categoryRef.size() == Integer.SIZE) {
+				PApplet.println("<Tileset> Error, too many collision categories ( " + name + " ) >");
+				return 0;
 			}
+			bit = 1 << categoryRef.size();
+			categoryRef.put(name, bit);
 		}
-		PApplet.println("<Tileset> Error while loading, null string reference to animation ( " + name + " ) >");
-		return null;
+		return bit;
+	}
+	
+	public static int getTileCategory(int index) {
+		return loadedCategories.get(index);
+	}
+	
+	public static int getTileMask(int index) {
+		return loadedMasks.get(index);
+	}
+	
+	/**
+	 * @return handles of all tiles of the given types, in tileset order.
+	 */
+	public static ArrayList<Integer> getAllTileIds(tileType[] types) {
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		for(tileType type : types)
+			for(int i = 0; i < getTileCount(); i++)
+				if (getTileType(i) == type)
+					ids.add(i);
+		return ids;
 	}
 	
 	public static ArrayList<PImage> getAllTiles(tileType type) {
@@ -147,12 +198,11 @@ public class Tileset {
 		return images;
 	}
 	
+	/**
+	 * @return new object for the id, see {@link GameObjectRegistry}.
+	 */
 	public static GameObject getObjectClass(String name) {
-		if (name.equals("MAGIC_SOURCE"))
-			return new MagicSourceObject(applet);
-		if (name.equals("MIRROR_BOX"))
-			return new MirrorBoxObject(applet);
-		return new GameObject(applet);
+		return GameObjectRegistry.create(applet, name);
 	}
 	
 	private static void loadJSON() {
@@ -174,6 +224,46 @@ public class Tileset {
 			
 			tileRef.put(name, i);
 			loadedTiles.add(image);
+			loadedTypes.add(parseTileType(tile.getString("type", "COLLISION")));
+			loadedCategories.add(tile.hasKey("category") ? parseCategories(tile.getJSONArray("category"))
+					: loadedTypes.get(i) == tileType.COLLISION ? CATEGORY_SOLID : 0);
+			loadedMasks.add(tile.hasKey("mask") ? parseCategories(tile.getJSONArray("mask")) : CATEGORY_ALL);
+		}
+	}
+	
+	private static void loadAnimations() {
+		for(int i = 0; i < JSONanimations.size(); i++) {
+			JSONObject animation = JSONanimations.getJSONObject(i);
+			ArrayList<PImage> frames = new ArrayList<PImage>();
+			JSONArray tileRefs = animation.getJSONArray("tileRef");
+			
+			for(int k = 0; k < tileRefs.size(); k++)
+				frames.add(getTile(tileRefs.getJSONObject(k).getString("name")));
+			
+			animationRef.put(animation.getString("name"), i);
+			loadedAnimations.add(frames);
+		}
+	}
+	
+	private static int parseCategories(JSONArray names) {
+		int bits = 0;
+		for(int i = 0; i < names.size(); i++)
+			bits |= getCategory(names.getString(i));
+		return bits;
+	}
+	
+	private static tileType parseTileType(String type) {
+		switch(type) {
+			case "COLLISION":
+				return tileType.COLLISION;
+			case "BACKGROUND":
+				return tileType.BACKGROUND;
+			case "OBJECT":
+				return tileType.OBJECT;
+			case "ENTITY":
+				return tileType.ENTITY;
+			default:
+				return null;
 		}
 	}
 	
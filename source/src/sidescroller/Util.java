@@ -162,27 +162,20 @@ public class Util {
 	 * @param path    File location.
 	 * @param content File contents
 	 */
-	public static void saveFile(String path, String content) {
+	public static boolean saveFile(String path, String content) {
 		try {
 			OutputStreamWriter o = new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8);
 			o.write(content);
 			o.close();
+			return true;
 		} catch (IOException e) {
 			e.printStackTrace();
+			return false;
 		}
 	}
 
 	public boolean fileExists(String src) {
-		boolean condition = false;
-		try {
-			String[] file = applet.loadStrings(src);
-			if (file[0].length() == 0) {
-			}
-			condition = true;
-		} catch (Exception e) {
-			condition = false;
-		}
-		return condition;
+		return applet.sketchFile(src).exists();
 	}
 
 	// Game
@@ -192,10 +185,16 @@ public class Util {
 
 		// Parse JSON
 		JSONArray data = JSONArray.parse(scriptD);
+		LevelFormat.migrate(data); // upgrade older levels
 
 		// Clear Object Arrays
+		applet.collisionLayer.clear();
+		applet.backgroundLayer.clear();
 		applet.collidableObjects.clear();
 		applet.backgroundObjects.clear();
+		applet.gameObjects.clear();
+		applet.gameIndex.clear();
+		applet.events.clear();
 
 		// Create Level
 		for (int i = 0; i < data.size(); i++) {
@@ -241,6 +240,7 @@ public class Util {
 
 						// Append To Level
 						applet.gameObjects.add(gameObject);
+						applet.gameIndex.add(gameObject);
 						break;
 				}
 			}
@@ -252,8 +252,22 @@ public class Util {
 	 * output.
 	 * 
 	 * @param path Save location path.
+	 * @return whether the level was written.
+	 */
+	public boolean saveLevel(String path) {
+		return saveFile(path, encrypt(levelToJSON().toString()));
+	}
+
+	/**
+	 * Serializes the current level (background, game and collideable objects) to
+	 * the level JSON format. Child collisions (owned by game objects) are skipped,
+	 * since their parent object recreates them on load.
+	 * 
+	 * @return level data, header first.
 	 */
-	public void saveLevel(String path) {
+	public JSONArray levelToJSON() {
+		applet.collisionLayer.unpack(); // packed tiles are not in the lists
+		applet.backgroundLayer.unpack();
 		JSONArray data = new JSONArray();
 
 		// MAIN
@@ -261,12 +275,16 @@ public class Util {
 		main.setString("title", "undefined");
 		main.setString("creator", "undefined");
 		main.setString("version", "alpha 1.0.0");
+		main.setInt("format", LevelFormat.VERSION);
 
 		// Add Main
 		data.append(main);
 
 		// Add Collisions
 		for (int i = 0; i < applet.collidableObjects.size(); i++) {
+			if (applet.collidableObjects.get(i).child) {
+				continue;
+			}
 			JSONObject item = new JSONObject();
 			item.setString("id", applet.collidableObjects.get(i).id);
 			item.setString("type", "COLLISION");
@@ -287,8 +305,6 @@ public class Util {
 
 		// Add Game Objects
 		for (int i = 0; i < applet.gameObjects.size(); i++) {
-			applet.collidableObjects.remove(applet.gameObjects.get(i).collision);
-
 			JSONObject item = new JSONObject();
 			item.setString("id", applet.gameObjects.get(i).id);
 			item.setString("type", "OBJECT");
@@ -297,8 +313,7 @@ public class Util {
 			data.append(item);
 		}
 
-		// Save Level
-		saveFile(path, encrypt(data.toString()));
+		return data;
 	}
 
 	/**
@@ -307,15 +322,15 @@ public class Util {
 	 * @param str
 	 * @return
 	 */
-	private static String encrypt(String str) {
+	static String encrypt(String str) {
 		if (encrypt) {
-			String output = "";
+			StringBuilder output = new StringBuilder(str.length());
 			for (int i = 0; i < str.length(); i++) {
 				int k = PApplet.parseInt(str.charAt(i));
 				k = (k * 8) - 115; // Encrypt Key
-				output += PApplet.parseChar(k);
+				output.append(PApplet.parseChar(k));
 			}
-			return output;
+			return output.toString();
 		}
 		return str;
 	}
@@ -326,13 +341,13 @@ public class Util {
 	 * @param str
 	 * @return
 	 */
-	private static String decrypt(String str) {
-		String output = "";
+	static String decrypt(String str) {
+		StringBuilder output = new StringBuilder(str.length());
 		for (int i = 0; i < str.length(); i++) {
 			int k = PApplet.parseInt(str.charAt(i));
 			k = (k + 115) / 8; // Encrypt Key
-			output += PApplet.parseChar(k);
+			output.append(PApplet.parseChar(k));
 		}
-		return output.replaceAll("" + PApplet.parseChar(8202), "\n").replaceAll("" + PApplet.parseChar(8201), "\t");
+		return output.toString().replaceAll("" + PApplet.parseChar(8202), "\n").replaceAll("" + PApplet.parseChar(8201), "\t");
 	}
 }
@@ -36,6 +36,13 @@ public class List extends PClass {
 			elements[i] = new Button(applet);
 	}
 
+	// Replaces the elements when their number changes
+	public void setElements(String ar[]) {
+		elements = new Button[ar.length];
+		initalizeElements();
+		refreshElements(ar);
+	}
+
 	public void refreshElements(String ar[]) {
 		int getLargestW = 0;
 		for (int i = 0; i < ar.length; i++) {
@@ -1,6 +1,7 @@
 package windows;
 
 import scene.SceneMapEditor;
+import sidescroller.LevelIndex;
 import sidescroller.PClass;
 import sidescroller.SideScroller;
 import ui.Anchor;
@@ -8,8 +9,6 @@ import ui.Button;
 import ui.List;
 import ui.ScrollBarVertical;
 
-import java.io.File;
-
 import processing.core.PApplet;
 
 public class LoadLevelWindow extends PClass {
@@ -18,15 +17,17 @@ public class LoadLevelWindow extends PClass {
 	// Map editor Scene
 	public SceneMapEditor scene;
 	public List list;
-	File f;
+	LevelIndex index;
+	int indexRevision;
 
 	public LoadLevelWindow(SideScroller a) {
 		super(a);
 
 		scene = (SceneMapEditor) a.mapEditor;
 
-		f = new File(path);
-		list = new List(a, f.list(), 30);
+		index = new LevelIndex(path);
+		indexRevision = index.getRevision();
+		list = new List(a, index.getNames(), 30);
 		list.setSizeH(200);
 		list.setPosition(applet.width / 2, 325);
 		list.setConfirmButton("Confirm", applet.width / 2, 500);
@@ -54,9 +55,51 @@ public class LoadLevelWindow extends PClass {
 		applet.popMatrix();
 		// Display Load Press
 		list.display();
+
+		// Display Selected Level Info
+		LevelIndex.Entry entry = index.get(list.getElement());
+		if (entry != null) {
+			displayEntry(entry);
+		}
+	}
+
+	private void displayEntry(LevelIndex.Entry entry) {
+		int x = applet.width / 2 + 220;
+		int y = applet.height / 2 - 250;
+
+		applet.fill(29, 33, 45);
+		applet.stroke(47, 54, 73);
+		applet.strokeWeight(8);
+		applet.rectMode(CORNER);
+		applet.rect(x, y, 200, 260);
+		applet.rectMode(CENTER);
+
+		applet.fill(255);
+		applet.textSize(16);
+		applet.textAlign(LEFT, TOP);
+		if (entry.error != null) {
+			applet.text("Unreadable level", x + 10, y + 10);
+			return;
+		}
+		if (entry.thumbnail != null) {
+			applet.imageMode(CORNER);
+			applet.image(entry.thumbnail, x + 40, y + 10);
+			applet.imageMode(CENTER);
+		}
+		applet.text(entry.title, x + 10, y + 100);
+		applet.text("by " + entry.creator, x + 10, y + 120);
+		applet.text(entry.version, x + 10, y + 140);
+		applet.text(entry.collisions + " collisions", x + 10, y + 170);
+		applet.text(entry.backgrounds + " backgrounds", x + 10, y + 190);
+		applet.text(entry.objects + " objects", x + 10, y + 210);
+		applet.text((entry.maxX - entry.minX) + " x " + (entry.maxY - entry.minY), x + 10, y + 230);
 	}
 
 	public void update() {
+		if (index.getRevision() != indexRevision) { // levels added/removed/changed on disk
+			indexRevision = index.getRevision();
+			list.setElements(index.getNames());
+		}
 		list.update();
 		confirmButton();
 		cancelButton();
@@ -65,6 +108,7 @@ public class LoadLevelWindow extends PClass {
 	public void confirmButton() {
 		if (list.getConfirmPress() && !list.getElement().isEmpty()) {
 			util.loadLevel(path + list.getElement());
+			scene.journal.begin();
 			list.resetElement();
 			scene.tool = SceneMapEditor.Tools.MOVE;
 		} else if (list.getConfirmPress() && list.getElement().isEmpty())
@@ -80,7 +80,9 @@ public class SaveLevelWindow extends PClass {
 
 		pressSave.update();
 		if (pressSave.event()) {
-			util.saveLevel(path + input.getText() + ".dat");
+			if (util.saveLevel(path + input.getText() + ".dat")) {
+				scene.journal.begin(); // saved; nothing left to recover
+			}
 			input.setText("");
 			scene.tool = SceneMapEditor.Tools.MOVE;
 		}